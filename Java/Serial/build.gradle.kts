@@ -32,6 +32,11 @@
 // Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
 //---------------------------------------------------------------------------
 
+import java.io.BufferedOutputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.io.File
+
 plugins {
     alias(libs.plugins.android.library)
     alias(libs.plugins.jreleaser)
@@ -74,6 +79,89 @@ android {
     }
 }
 
+/**
+ * Generates binary index of the USB vendor and product names from usbs.txt.
+ * usbs.txt is kept in res/raw, so R.raw.usbs is still available for the applications.
+ * Index contains sorted vendor ids, sorted (vendor << 16 | product) keys and
+ * string table where each name is saved with 16 bit length.
+ */
+abstract class UsbIndexTask : DefaultTask() {
+    @get:InputFile
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val source: RegularFileProperty
+
+    @get:OutputDirectory
+    abstract val outputDirectory: DirectoryProperty
+
+    @TaskAction
+    fun generate() {
+        val vendors = sortedMapOf<Int, String>()
+        val products = sortedMapOf<Int, String>()
+        var vendor = -1
+        for (line in source.get().asFile.readLines(Charsets.UTF_8)) {
+            if (line.startsWith("C 00")) {
+                // If all manufacturers are read.
+                break
+            }
+            if (line.isEmpty() || line.startsWith("#") || line.startsWith("\t\t")) {
+                continue
+            }
+            if (line.startsWith("\t")) {
+                if (vendor != -1) {
+                    val key = (vendor shl 16) or line.substring(1, 5).toInt(16)
+                    products.putIfAbsent(key, line.substring(6).trim())
+                }
+            } else {
+                vendor = line.substring(0, 4).toInt(16)
+                if (vendors.containsKey(vendor)) {
+                    vendor = -1
+                } else {
+                    vendors[vendor] = line.substring(5).trim()
+                }
+            }
+        }
+        val strings = ByteArrayOutputStream()
+        val offsets = HashMap<String, Int>()
+        fun add(name: String): Int = offsets.getOrPut(name) {
+            val offset = strings.size()
+            val bytes = name.toByteArray(Charsets.UTF_8)
+            strings.write(bytes.size shr 8)
+            strings.write(bytes.size and 0xFF)
+            strings.write(bytes)
+            offset
+        }
+        val dir = outputDirectory.get().dir("raw").asFile
+        dir.mkdirs()
+        DataOutputStream(BufferedOutputStream(File(dir, "usbs_index.bin").outputStream())).use { out ->
+            out.writeInt(0x47585549)
+            out.writeInt(1)
+            out.writeInt(vendors.size)
+            for ((id, name) in vendors) {
+                out.writeInt(id)
+                out.writeInt(add(name))
+            }
+            out.writeInt(products.size)
+            for ((key, name) in products) {
+                out.writeInt(key)
+                out.writeInt(add(name))
+            }
+            val table = strings.toByteArray()
+            out.writeInt(table.size)
+            out.write(table)
+        }
+    }
+}
+
+val usbIndex = tasks.register<UsbIndexTask>("generateUsbIndex") {
+    source.set(layout.projectDirectory.file("src/main/res/raw/usbs.txt"))
+}
+
+androidComponents {
+    onVariants { variant ->
+        variant.sources.res?.addGeneratedSourceDirectory(usbIndex, UsbIndexTask::outputDirectory)
+    }
+}
+
 dependencies {
     implementation(libs.guruxCommonAndroid)
     implementation(libs.appcompat)
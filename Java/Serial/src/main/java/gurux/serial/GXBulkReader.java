@@ -0,0 +1,153 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bulk reader reads received data from the bulk IN endpoint. Data is read using
+ * blocking bulk transfers or several requests are kept queued to the endpoint,
+ * so the endpoint is armed while the received data is handled.
+ *
+ * @author Gurux Ltd.
+ */
+final class GXBulkReader {
+    /**
+     * Bulk IN endpoint.
+     */
+    private final IGXBulkIn mInput;
+
+    /**
+     * Buffer for blocking bulk transfers.
+     */
+    private final byte[] mBuffer;
+
+    /**
+     * Buffers of the queued requests. Null if blocking bulk transfers are used.
+     */
+    private final ByteBuffer[] mBuffers;
+
+    /**
+     * Completed request that is queued again on the next read. -1 if there is none.
+     */
+    private int mHandled = -1;
+
+    /**
+     * Buffer where the last read data is.
+     */
+    private byte[] mData;
+
+    /**
+     * Constructor.
+     *
+     * @param input        Bulk IN endpoint.
+     * @param size         Transfer size.
+     * @param requestCount Amount of queued requests. Blocking bulk transfers are used if less than two.
+     */
+    GXBulkReader(final IGXBulkIn input, final int size, final int requestCount) {
+        mInput = input;
+        if (requestCount > 1) {
+            mBuffer = null;
+            mBuffers = new ByteBuffer[requestCount];
+            for (int pos = 0; pos != requestCount; ++pos) {
+                mBuffers[pos] = ByteBuffer.allocate(size);
+            }
+        } else {
+            mBuffer = new byte[size];
+            mBuffers = null;
+        }
+    }
+
+    /**
+     * Queue requests to the endpoint.
+     */
+    void start() {
+        if (mBuffers != null) {
+            for (int pos = 0; pos != mBuffers.length; ++pos) {
+                if (!mInput.queue(pos, mBuffers[pos])) {
+                    throw new IllegalStateException("Failed to queue USB request.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Read next data from the endpoint.
+     *
+     * @param timeout Timeout in milliseconds.
+     * @return Amount of read bytes or -1 if timeout occurred.
+     * @see #getData
+     */
+    int read(final int timeout) {
+        if (mBuffers == null) {
+            mData = mBuffer;
+            return mInput.transfer(mBuffer, mBuffer.length, timeout);
+        }
+        if (mHandled != -1) {
+            //Handled request is queued again so the endpoint is always armed.
+            ByteBuffer buff = mBuffers[mHandled];
+            buff.clear();
+            int request = mHandled;
+            mHandled = -1;
+            if (!mInput.queue(request, buff)) {
+                throw new IllegalStateException("Failed to queue USB request.");
+            }
+        }
+        //Zero timeout waits forever.
+        int request = mInput.waitRequest(Math.max(1, timeout));
+        if (request == -1) {
+            return -1;
+        }
+        mHandled = request;
+        ByteBuffer buff = mBuffers[request];
+        mData = buff.array();
+        return buff.position();
+    }
+
+    /**
+     * @return Buffer where the last read data is.
+     */
+    byte[] getData() {
+        return mData;
+    }
+
+    /**
+     * Cancel queued requests.
+     */
+    void close() {
+        mInput.close();
+    }
+}
@@ -0,0 +1,334 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+//
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2.
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+import android.hardware.usb.UsbConstants;
+import android.hardware.usb.UsbDevice;
+import android.hardware.usb.UsbDeviceConnection;
+import android.hardware.usb.UsbEndpoint;
+import android.hardware.usb.UsbInterface;
+import android.hardware.usb.UsbRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeoutException;
+
+import gurux.serial.enums.Chipset;
+
+/**
+ * CDC ACM (USB Communications Device Class, Abstract Control Model) settings.
+ */
+class GXCdcAcm extends GXChipset {
+
+    public Chipset getChipset() {
+        return Chipset.CDC_ACM;
+    }
+
+    private static final int USB_RECIP_INTERFACE = 0x01;
+    private static final int CDC_CTRL_OUT_REQTYPE = UsbConstants.USB_DIR_OUT
+            | UsbConstants.USB_TYPE_CLASS | USB_RECIP_INTERFACE;
+    private static final int USB_SUBCLASS_ACM = 0x02;
+    private static final int SET_LINE_CODING = 0x20;
+    private static final int SET_CONTROL_LINE_STATE = 0x22;
+    private static final int CONTROL_DTR = 0x01;
+    private static final int CONTROL_RTS = 0x02;
+
+    /* Serial state notification. */
+    private static final int SERIAL_STATE = 0x20;
+    private static final int SERIAL_STATE_LENGTH = 10;
+    private static final int SERIAL_STATE_DCD = 0x01;
+    private static final int SERIAL_STATE_DSR = 0x02;
+    private static final int SERIAL_STATE_BREAK = 0x04;
+    private static final int SERIAL_STATE_RI = 0x08;
+    private static final int SERIAL_STATE_FRAMING = 0x10;
+    private static final int SERIAL_STATE_PARITY = 0x20;
+    private static final int SERIAL_STATE_OVERRUN = 0x40;
+
+    /**
+     * If notification endpoint is empty how long is waited for new notification.
+     */
+    private static final int WAIT_TIME = 200;
+
+    /**
+     * Communication interface.
+     */
+    private UsbInterface mControlInterface;
+
+    /**
+     * Interrupt endpoint where serial state notifications are read.
+     */
+    private UsbEndpoint mNotification;
+
+    /**
+     * Request that reads serial state notifications.
+     */
+    private UsbRequest mRequest;
+
+    /**
+     * Thread that waits serial state notifications. Null if receive thread handles them.
+     */
+    private Thread mNotificationThread;
+
+    /**
+     * Is notification reading closing.
+     */
+    private volatile boolean mClosing;
+
+    private boolean mDtrEnable = false;
+    private boolean mRtsEnable = false;
+
+    /**
+     * Is device using CDC ACM.
+     *
+     * @param device USB device.
+     * @return True, if device has CDC ACM communication interface.
+     */
+    static boolean isUsing(final UsbDevice device) {
+        for (int pos = 0; pos != device.getInterfaceCount(); ++pos) {
+            UsbInterface it = device.getInterface(pos);
+            if (it.getInterfaceClass() == UsbConstants.USB_CLASS_COMM
+                    && it.getInterfaceSubclass() == USB_SUBCLASS_ACM) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean open(GXSerial serial, UsbDeviceConnection connection, byte[] rawDescriptors) throws IOException {
+        UsbDevice device = serial.mDevice;
+        for (int pos = 0; pos != device.getInterfaceCount(); ++pos) {
+            UsbInterface it = device.getInterface(pos);
+            if (it.getInterfaceClass() == UsbConstants.USB_CLASS_COMM) {
+                mControlInterface = it;
+                break;
+            }
+        }
+        if (mControlInterface == null) {
+            throw new IOException("CDC ACM communication interface not found.");
+        }
+        if (!connection.claimInterface(mControlInterface, true)) {
+            throw new IOException("Failed to claim CDC ACM communication interface.");
+        }
+        for (int pos = 0; pos != mControlInterface.getEndpointCount(); ++pos) {
+            UsbEndpoint it = mControlInterface.getEndpoint(pos);
+            if (it.getType() == UsbConstants.USB_ENDPOINT_XFER_INT
+                    && it.getDirection() == UsbConstants.USB_DIR_IN) {
+                mNotification = it;
+                break;
+            }
+        }
+        byte[] lineCoding = new byte[7];
+        int baudRate = serial.getBaudRateValue();
+        lineCoding[0] = (byte) (baudRate & 0xff);
+        lineCoding[1] = (byte) ((baudRate >> 8) & 0xff);
+        lineCoding[2] = (byte) ((baudRate >> 16) & 0xff);
+        lineCoding[3] = (byte) ((baudRate >> 24) & 0xff);
+        lineCoding[4] = (byte) serial.getStopBits().ordinal();
+        lineCoding[5] = (byte) serial.getParity().ordinal();
+        lineCoding[6] = (byte) serial.getDataBits();
+        int ret = connection.controlTransfer(CDC_CTRL_OUT_REQTYPE, SET_LINE_CODING, 0,
+                mControlInterface.getId(), lineCoding, lineCoding.length, serial.getWriteTimeout());
+        if (ret != lineCoding.length) {
+            return false;
+        }
+        //Enable DTR and RTS. Many devices do not send data before DTR is set.
+        mDtrEnable = true;
+        mRtsEnable = true;
+        setControlLineState(serial, connection);
+        if (mNotification != null) {
+            startNotifications(serial, connection);
+        }
+        return true;
+    }
+
+    @Override
+    void close(final UsbDeviceConnection connection) {
+        mClosing = true;
+        if (mRequest != null) {
+            //Pending notification request is completed when it's cancelled.
+            mRequest.cancel();
+        }
+        if (mNotificationThread != null) {
+            mNotificationThread.interrupt();
+            //Thread must end before the interface is released.
+            try {
+                mNotificationThread.join(WAIT_TIME * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            mNotificationThread = null;
+        }
+        if (mRequest != null) {
+            mRequest.close();
+            mRequest = null;
+        }
+        if (mControlInterface != null) {
+            connection.releaseInterface(mControlInterface);
+            mControlInterface = null;
+        }
+        mNotification = null;
+    }
+
+    /**
+     * Start reading serial state notifications from the interrupt endpoint.
+     * Only one thread can wait completed requests of the connection. If the receive thread
+     * uses queued requests, it handles also notifications. Otherwise, notification thread is started.
+     *
+     * @param serial     Serial port.
+     * @param connection USB connection.
+     */
+    private void startNotifications(final GXSerial serial, final UsbDeviceConnection connection) {
+        mClosing = false;
+        final ByteBuffer buff = ByteBuffer.allocate(mNotification.getMaxPacketSize());
+        final UsbRequest request = new UsbRequest();
+        if (!request.initialize(connection, mNotification)) {
+            return;
+        }
+        request.setClientData(new GXUsbBulkIn.Listener() {
+            @Override
+            public void completed(final UsbRequest request) {
+                if (mClosing) {
+                    return;
+                }
+                if (buff.position() >= SERIAL_STATE_LENGTH && buff.get(1) == SERIAL_STATE) {
+                    updateSerialState((buff.get(8) & 0xFF) | ((buff.get(9) & 0xFF) << 8));
+                }
+                buff.clear();
+                request.queue(buff);
+            }
+        });
+        mRequest = request;
+        if (!request.queue(buff)) {
+            request.close();
+            mRequest = null;
+            return;
+        }
+        if (serial.getReceiveRequestCount() > 1) {
+            return;
+        }
+        mNotificationThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!mClosing && !Thread.currentThread().isInterrupted()) {
+                    UsbRequest completed;
+                    try {
+                        completed = connection.requestWait(WAIT_TIME);
+                    } catch (TimeoutException e) {
+                        continue;
+                    }
+                    if (completed == null) {
+                        //Connection is closed.
+                        break;
+                    }
+                    if (completed.getClientData() instanceof GXUsbBulkIn.Listener) {
+                        ((GXUsbBulkIn.Listener) completed.getClientData()).completed(completed);
+                    }
+                }
+            }
+        }, "CDC ACM notifications");
+        mNotificationThread.start();
+    }
+
+    @Override
+    int getSupportedModemStatus() {
+        //Serial state notification doesn't include CTS.
+        if (mNotification == null) {
+            return 0;
+        }
+        return MODEM_STATUS_DSR | MODEM_STATUS_RI | MODEM_STATUS_CD;
+    }
+
+    /**
+     * Update modem status and line status counters from the serial state notification.
+     *
+     * @param state Serial state.
+     */
+    private void updateSerialState(final int state) {
+        int status = 0;
+        if ((state & SERIAL_STATE_DCD) != 0) {
+            status |= MODEM_STATUS_CD;
+        }
+        if ((state & SERIAL_STATE_DSR) != 0) {
+            status |= MODEM_STATUS_DSR;
+        }
+        if ((state & SERIAL_STATE_RI) != 0) {
+            status |= MODEM_STATUS_RI;
+        }
+        mModemStatus = status;
+        if ((state & SERIAL_STATE_OVERRUN) != 0) {
+            ++mOverrunErrors;
+        }
+        if ((state & SERIAL_STATE_PARITY) != 0) {
+            ++mParityErrors;
+        }
+        if ((state & SERIAL_STATE_FRAMING) != 0) {
+            ++mFramingErrors;
+        }
+        if ((state & SERIAL_STATE_BREAK) != 0) {
+            ++mBreakInterrupts;
+        }
+    }
+
+    private void setControlLineState(final GXSerial serial, final UsbDeviceConnection connection) throws IOException {
+        int value = (mDtrEnable ? CONTROL_DTR : 0) | (mRtsEnable ? CONTROL_RTS : 0);
+        int ret = connection.controlTransfer(CDC_CTRL_OUT_REQTYPE, SET_CONTROL_LINE_STATE, value,
+                mControlInterface.getId(), null, 0, serial.getWriteTimeout());
+        if (ret < 0) {
+            throw new IOException("Set control line state failed: " + ret);
+        }
+    }
+
+    @Override
+    boolean getDtrEnable(final UsbDeviceConnection connection) {
+        return mDtrEnable;
+    }
+
+    @Override
+    void setDtrEnable(final GXSerial serial, final UsbDeviceConnection connection, final boolean value) throws IOException {
+        mDtrEnable = value;
+        setControlLineState(serial, connection);
+    }
+
+    @Override
+    boolean getRtsEnable(final UsbDeviceConnection connection) {
+        return mRtsEnable;
+    }
+
+    @Override
+    void setRtsEnable(final GXSerial serial, final UsbDeviceConnection connection, final boolean value) throws IOException {
+        mRtsEnable = value;
+        setControlLineState(serial, connection);
+    }
+}
@@ -56,49 +56,160 @@ class GXCh34x extends GXChipset {
     private static final int BIT_DTR = 1 << 5; // DTR = bit5
     private static final int BIT_RTS = 1 << 6; // RTS = bit6
 
-    public static boolean isUsing(final String manufacturer, final int vendor, final int product) {
-        /*QinHeng Electronics and QinHeng Electronics*/
-        return vendor == 0x1a86;
+    /**
+     * QinHeng Electronics vendor ID. All products of this vendor use Ch 34x chipset.
+     */
+    static final int VENDOR = 0x1a86;
+
+    /**
+     * Base clock.
+     */
+    private static final int CLOCK_RATE = 48000000;
+
+    /**
+     * Min supported baud rate.
+     */
+    private static final int MIN_BAUD_RATE = (CLOCK_RATE + getClockDiv(0, 0) * 256 - 1) / (getClockDiv(0, 0) * 256);
+
+    /**
+     * Max supported baud rate.
+     */
+    private static final int MAX_BAUD_RATE = CLOCK_RATE / (getClockDiv(3, 0) * 2);
+
+    /**
+     * Max allowed difference between requested and achieved baud rate in percent.
+     */
+    private static final int MAX_BAUD_RATE_ERROR = 3;
+
+    /**
+     * CH341A buffers data until the USB packet is full if this bit is not set.
+     * Older chips have this bit inverted, so it's used only after version 0x27.
+     */
+    private static final int PRESCALER_NO_BUFFERING = 0x80;
+
+    /**
+     * Newest chip version where no buffering bit is inverted.
+     */
+    private static final int INVERTED_NO_BUFFERING_VERSION = 0x27;
+
+    /**
+     * Break control register. Reading it fails with the chips that have limited prescaler.
+     */
+    private static final int REG_BREAK = 0x05;
+
+    /**
+     * Baud rates and values of the 0x2C register that older chips use with them.
+     */
+    private static final int[][] OLD_TIMEOUTS = {{115200, 0x08}, {38400, 0x0A}, {19200, 0x0D},
+            {9600, 0x13}, {4800, 0x1F}, {0, 0x38}};
+
+    /**
+     * Chip version. Read when port is opened.
+     */
+    private int mVersion;
+
+    /**
+     * Some chips require lower base clock if prescaler is less than 3. Detected when port is opened.
+     */
+    private boolean mLimitedPrescaler;
+
+    /**
+     * Get clock divider.
+     *
+     * @param prescaler Prescaler.
+     * @param factor    Is base clock halved (0) or not (1).
+     * @return Clock divider.
+     */
+    private static int getClockDiv(final int prescaler, final int factor) {
+        return 1 << (12 - 3 * prescaler - factor);
     }
 
-    private void setBaudRate(UsbDeviceConnection connection, int baudRate) throws IOException {
-        int a, b;
-        switch (baudRate) {
-            case 2400:
-                a = 0xd901;
-                b = 0x0038;
-                break;
-            case 4800:
-                a = 0x6402;
-                b = 0x001f;
-                break;
-            case 9600:
-                a = 0xb202;
-                b = 0x0013;
-                break;
-            case 19200:
-                a = 0xd902;
-                b = 0x000d;
-                break;
-            case 38400:
-                a = 0x6403;
-                b = 0x000a;
-                break;
-            case 115200:
-                a = 0xcc03;
-                b = 0x0008;
+    /**
+     * Calculate prescaler and divisor registers for the baud rate.
+     *
+     * @param baudRate         Baud rate.
+     * @param limitedPrescaler Is lower base clock required when prescaler is less than 3.
+     * @param actual           Achieved baud rate.
+     * @return Divisor in the high byte and factor and prescaler in the low byte.
+     */
+    static int getBaudRateDivisor(final int baudRate, final boolean limitedPrescaler,
+                                  final int[] actual) throws IOException {
+        if (baudRate < MIN_BAUD_RATE || baudRate > MAX_BAUD_RATE) {
+            throw new IOException("Invalid baud rate: " + baudRate);
+        }
+        //Start with the highest base clock that gives divisor less than 512.
+        int factor = 1;
+        int prescaler;
+        for (prescaler = 3; prescaler >= 0; --prescaler) {
+            if (baudRate > CLOCK_RATE / (getClockDiv(prescaler, 1) * 512)) {
                 break;
-            default:
-                throw new IOException("Invalid baud rate: " + baudRate);
+            }
+        }
+        if (prescaler < 0) {
+            throw new IOException("Invalid baud rate: " + baudRate);
+        }
+        int clockDiv = getClockDiv(prescaler, factor);
+        int divisor = CLOCK_RATE / (clockDiv * baudRate);
+        //Halve base clock if required. Some chips require lower base clock if prescaler is less than 3.
+        if (divisor < 9 || divisor > 255 || (prescaler < 3 && limitedPrescaler)) {
+            divisor /= 2;
+            clockDiv *= 2;
+            factor = 0;
+        }
+        if (divisor < 2) {
+            throw new IOException("Invalid baud rate: " + baudRate);
+        }
+        //Pick next divisor if resulting rate is closer to the requested one.
+        //Values are scaled up to avoid rounding errors on low rates.
+        if (16L * CLOCK_RATE / (clockDiv * divisor) - 16L * baudRate
+                >= 16L * baudRate - 16L * CLOCK_RATE / (clockDiv * (divisor + 1))) {
+            ++divisor;
+        }
+        //Lower base clock is preferred with even divisor. It makes receiver more tolerant to errors.
+        if (factor == 1 && divisor % 2 == 0) {
+            divisor /= 2;
+            factor = 0;
+        }
+        actual[0] = CLOCK_RATE / (getClockDiv(prescaler, factor) * divisor);
+        if ((long) Math.abs(actual[0] - baudRate) * 100 > (long) baudRate * MAX_BAUD_RATE_ERROR) {
+            throw new IOException("Invalid baud rate: " + baudRate);
+        }
+        return (0x100 - divisor) << 8 | factor << 2 | prescaler;
+    }
+
+    /**
+     * Get value of the 0x2C register that older chips use with the baud rate.
+     *
+     * @param baudRate Baud rate.
+     * @return Register value.
+     */
+    static int getOldTimeout(final int baudRate) {
+        for (int[] it : OLD_TIMEOUTS) {
+            if (baudRate >= it[0]) {
+                return it[1];
+            }
         }
-        int ret = connection.controlTransfer(64, 0x9a, 0x1312, a, null, 0, 1000);
+        return OLD_TIMEOUTS[OLD_TIMEOUTS.length - 1][1];
+    }
+
+    private void setBaudRate(UsbDeviceConnection connection, int baudRate) throws IOException {
+        int[] actual = new int[1];
+        int value = getBaudRateDivisor(baudRate, mLimitedPrescaler, actual);
+        if (mVersion > INVERTED_NO_BUFFERING_VERSION) {
+            value |= PRESCALER_NO_BUFFERING;
+        }
+        int ret = connection.controlTransfer(64, 0x9a, 0x1312, value, null, 0, 1000);
         if (ret < 0) {
             throw new IOException("Failed to set baud rate. #1");
         }
-        ret = connection.controlTransfer(64, 0x9a, 0x0f2c, b, null, 0, 1000);
-        if (ret < 0) {
-            throw new IOException("Failed to set baud rate. #2");
+        if (mVersion <= INVERTED_NO_BUFFERING_VERSION) {
+            //Older chips can't use no buffering bit and they need the 0x2C register.
+            ret = connection.controlTransfer(64, 0x9a, 0x0f2c, getOldTimeout(baudRate), null, 0, 1000);
+            if (ret < 0) {
+                throw new IOException("Failed to set baud rate. #2");
+            }
         }
+        mActualBaudRate = actual[0];
     }
 
     private void setConfig(GXSerial serial, UsbDeviceConnection connection) throws IOException {
@@ -160,6 +271,11 @@ class GXCh34x extends GXChipset {
         if (ret < 0) {
             throw new IOException("Init failed1." + ret);
         }
+        //First byte is the chip version.
+        mVersion = ret > 0 ? buffer[0] & 0xFF : 0;
+        //Chips with limited prescaler don't support break control and reading the register fails.
+        mLimitedPrescaler = connection.controlTransfer(192, 0x95, REG_BREAK, 0, buffer, 2,
+                serial.getWriteTimeout()) < 0;
         //Set baud rate.
         ret = connection.controlTransfer(64, 154, 4882, 55682, null, 0, serial.getWriteTimeout());
         if (ret < 0) {
@@ -181,7 +297,7 @@ class GXCh34x extends GXChipset {
         }
         setConfig(serial, connection);
         //Set baud rate
-        setBaudRate(connection, serial.getBaudRate().getValue());
+        setBaudRate(connection, serial.getBaudRateValue());
         return true;
     }
 
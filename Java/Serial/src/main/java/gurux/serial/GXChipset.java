@@ -45,6 +45,54 @@ import gurux.serial.enums.Chipset;
  */
 abstract class GXChipset {
 
+    /**
+     * Clear To Send (CTS) modem status bit.
+     */
+    static final int MODEM_STATUS_CTS = 0x1;
+    /**
+     * Data Set Ready (DSR) modem status bit.
+     */
+    static final int MODEM_STATUS_DSR = 0x2;
+    /**
+     * Ring Indicator (RI) modem status bit.
+     */
+    static final int MODEM_STATUS_RI = 0x4;
+    /**
+     * Carrier Detect (CD) modem status bit.
+     */
+    static final int MODEM_STATUS_CD = 0x8;
+
+    /**
+     * Last received modem status.
+     */
+    protected volatile int mModemStatus;
+
+    /**
+     * Amount of overrun errors.
+     */
+    protected volatile long mOverrunErrors;
+
+    /**
+     * Amount of parity errors.
+     */
+    protected volatile long mParityErrors;
+
+    /**
+     * Amount of framing errors.
+     */
+    protected volatile long mFramingErrors;
+
+    /**
+     * Amount of break interrupts.
+     */
+    protected volatile long mBreakInterrupts;
+
+    /**
+     * Baud rate that chipset achieves with the used divisor.
+     * Zero if the chipset uses the requested baud rate as it is.
+     */
+    protected int mActualBaudRate;
+
     public abstract Chipset getChipset();
 
     /**
@@ -54,8 +102,48 @@ abstract class GXChipset {
         return false;
     }
 
+    /**
+     * @return Is latency timer supported.
+     */
+    public boolean isLatencyTimerSupported() {
+        return false;
+    }
+
+    /**
+     * @return Modem status bits that chipset reports. Zero if modem status is not reported.
+     */
+    int getSupportedModemStatus() {
+        return 0;
+    }
+
+    /**
+     * Get latency timer value from the device.
+     * If latency timer is not supported, stored value is returned.
+     *
+     * @param serial     Serial port.
+     * @param connection USB connection.
+     * @return Latency timer in milliseconds.
+     * @see #isLatencyTimerSupported
+     */
+    int getLatencyTimer(final GXSerial serial, final UsbDeviceConnection connection) throws IOException {
+        return serial.mLatencyTimer;
+    }
+
+    /**
+     * Set latency timer value to the device.
+     * If latency timer is not supported, nothing is done.
+     *
+     * @param serial     Serial port.
+     * @param connection USB connection.
+     * @param value      Latency timer in milliseconds.
+     * @see #isLatencyTimerSupported
+     */
+    void setLatencyTimer(final GXSerial serial, final UsbDeviceConnection connection, final int value) throws IOException {
+    }
+
     /**
      * Remove status bytes from data.
+     * Data can contain several USB packets and status header is at the beginning of each of them.
      *
      * @param data    Received data.
      * @param size    Data length.
@@ -67,19 +155,68 @@ abstract class GXChipset {
     }
 
     /**
-     * Is vendor using this chip set.
-     *
-     * @param manufacturer Manufacturer ID.
-     * @param vendor       Vendor ID.
-     * @param product      Product ID.
-     * @return True, if used chipset.
+     * @return Baud rate that chipset achieves or zero if requested baud rate is used as it is.
+     */
+    final int getActualBaudRate() {
+        return mActualBaudRate;
+    }
+
+    /**
+     * @return Last received modem status.
+     */
+    final int getModemStatus() {
+        return mModemStatus;
+    }
+
+    /**
+     * @return Amount of overrun errors.
+     */
+    final long getOverrunErrors() {
+        return mOverrunErrors;
+    }
+
+    /**
+     * @return Amount of parity errors.
+     */
+    final long getParityErrors() {
+        return mParityErrors;
+    }
+
+    /**
+     * @return Amount of framing errors.
+     */
+    final long getFramingErrors() {
+        return mFramingErrors;
+    }
+
+    /**
+     * @return Amount of break interrupts.
      */
-    static boolean isUsing(final String manufacturer, final int vendor, final int product) {
-        throw new RuntimeException("isUsing is not implemented.");
+    final long getBreakInterrupts() {
+        return mBreakInterrupts;
+    }
+
+    /**
+     * Reset modem status and line status counters.
+     */
+    final void resetLineStatus() {
+        mModemStatus = 0;
+        mOverrunErrors = 0;
+        mParityErrors = 0;
+        mFramingErrors = 0;
+        mBreakInterrupts = 0;
     }
 
     abstract boolean open(GXSerial serial, UsbDeviceConnection connection, byte[] rawDescriptors) throws IOException;
 
+    /**
+     * Release chipset resources when the serial port is closed.
+     *
+     * @param connection USB connection.
+     */
+    void close(final UsbDeviceConnection connection) {
+    }
+
     /**
      * Get is Data Terminal Ready (DTR) signal enabled.
      *
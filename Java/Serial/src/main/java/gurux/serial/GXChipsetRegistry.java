@@ -0,0 +1,308 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+import gurux.serial.enums.Chipset;
+
+/**
+ * Chipset registry maps USB vendor and product IDs to the chipsets. IDs are kept in
+ * an open-addressing hash table of primitive values, so chipset is found without
+ * allocating memory. Registry is updated using copy-on-write and lookups do not lock.
+ * <p>
+ * If vendor and product IDs are not registered, the chipset is searched by
+ * manufacturer name and then by vendor ID. CDC ACM devices are detected from
+ * the interface class.
+ *
+ * @author Gurux Ltd
+ */
+public final class GXChipsetRegistry {
+    /**
+     * Hash table. Table is not modified after it is published.
+     */
+    private static final class Table {
+        /**
+         * Keys.
+         */
+        private final int[] mKeys;
+        /**
+         * Chipset ordinal + 1. Zero if slot is empty.
+         */
+        private final byte[] mValues;
+        /**
+         * Amount of used slots.
+         */
+        private int mSize;
+
+        /**
+         * Constructor.
+         *
+         * @param capacity Table capacity. Must be power of two.
+         */
+        Table(final int capacity) {
+            mKeys = new int[capacity];
+            mValues = new byte[capacity];
+        }
+
+        /**
+         * Find slot of the key.
+         *
+         * @param key Key.
+         * @return Slot index. Slot is empty if key is not found.
+         */
+        private int indexOf(final int key) {
+            int mask = mKeys.length - 1;
+            int pos = ((key * 0x9E3779B9) >>> 16) & mask;
+            while (mValues[pos] != 0 && mKeys[pos] != key) {
+                pos = (pos + 1) & mask;
+            }
+            return pos;
+        }
+
+        /**
+         * Set value to the slot of the key.
+         *
+         * @param key   Key.
+         * @param value Chipset ordinal + 1.
+         */
+        private void set(final int key, final byte value) {
+            int index = indexOf(key);
+            if (mValues[index] == 0) {
+                ++mSize;
+            }
+            mKeys[index] = key;
+            mValues[index] = value;
+        }
+
+        /**
+         * Get chipset.
+         *
+         * @param key Key.
+         * @return Chipset or null if key is not found.
+         */
+        Chipset get(final int key) {
+            int value = mValues[indexOf(key)];
+            if (value == 0) {
+                return null;
+            }
+            return CHIPSETS[value - 1];
+        }
+
+        /**
+         * Copy table and set new value.
+         *
+         * @param key   Key.
+         * @param value Chipset or null if key is removed.
+         * @return New table.
+         */
+        Table put(final int key, final Chipset value) {
+            Table ret = new Table(getCapacity(mSize + 1));
+            for (int pos = 0; pos != mKeys.length; ++pos) {
+                if (mValues[pos] != 0 && mKeys[pos] != key) {
+                    ret.set(mKeys[pos], mValues[pos]);
+                }
+            }
+            if (value != null) {
+                ret.set(key, (byte) (value.ordinal() + 1));
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * Get table capacity. Load factor is kept under 0.5.
+     *
+     * @param count Amount of keys.
+     * @return Table capacity.
+     */
+    private static int getCapacity(final int count) {
+        int capacity = 16;
+        while (capacity < 2 * count) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Chipsets by ordinal.
+     */
+    private static final Chipset[] CHIPSETS = Chipset.values();
+
+    /**
+     * Chipsets by vendor and product ID.
+     */
+    private static volatile Table sProducts = new Table(16);
+
+    /**
+     * Chipsets by vendor ID.
+     */
+    private static volatile Table sVendors = new Table(16);
+
+    /**
+     * Manufacturer names and chipsets.
+     */
+    private static volatile Object[] sManufacturers = new Object[0];
+
+    static {
+        //Built-in IDs are added to one table of the final size.
+        Table table = new Table(getCapacity(GXCP21xx.IDS.length
+                + GXProfilic.IDS.length + GXFtdi.IDS.length));
+        add(table, GXCP21xx.IDS, Chipset.CP21XX);
+        add(table, GXProfilic.IDS, Chipset.PROFILIC);
+        add(table, GXFtdi.IDS, Chipset.FTDI);
+        sProducts = table;
+        registerManufacturer(GXFtdi.MANUFACTURER, Chipset.FTDI);
+        registerVendor(GXCh34x.VENDOR, Chipset.CH34X);
+    }
+
+    /**
+     * Constructor.
+     */
+    private GXChipsetRegistry() {
+
+    }
+
+    /**
+     * Add built-in IDs. Earlier registration is kept if same ID is used twice.
+     *
+     * @param table   Table where IDs are added.
+     * @param ids     Vendor and product IDs.
+     * @param chipset Chipset.
+     */
+    private static void add(final Table table, final int[] ids, final Chipset chipset) {
+        for (int it : ids) {
+            if (table.get(it) == null) {
+                table.set(it, (byte) (chipset.ordinal() + 1));
+            }
+        }
+    }
+
+    /**
+     * Check that chipset can be registered.
+     *
+     * @param chipset Chipset.
+     */
+    private static void validate(final Chipset chipset) {
+        if (chipset == null || chipset == Chipset.NONE) {
+            throw new IllegalArgumentException("Invalid chipset.");
+        }
+    }
+
+    /**
+     * Register chipset for the vendor and product ID.
+     *
+     * @param vendor  Vendor ID.
+     * @param product Product ID.
+     * @param chipset Chipset.
+     */
+    public static void register(final int vendor, final int product, final Chipset chipset) {
+        validate(chipset);
+        synchronized (GXChipsetRegistry.class) {
+            sProducts = sProducts.put(vendor << 16 | (product & 0xFFFF), chipset);
+        }
+    }
+
+    /**
+     * Remove registered vendor and product ID.
+     *
+     * @param vendor  Vendor ID.
+     * @param product Product ID.
+     */
+    public static void unregister(final int vendor, final int product) {
+        synchronized (GXChipsetRegistry.class) {
+            sProducts = sProducts.put(vendor << 16 | (product & 0xFFFF), null);
+        }
+    }
+
+    /**
+     * Register chipset for all products of the vendor.
+     *
+     * @param vendor  Vendor ID.
+     * @param chipset Chipset or null if vendor is removed.
+     */
+    public static void registerVendor(final int vendor, final Chipset chipset) {
+        if (chipset != null) {
+            validate(chipset);
+        }
+        synchronized (GXChipsetRegistry.class) {
+            sVendors = sVendors.put(vendor, chipset);
+        }
+    }
+
+    /**
+     * Register chipset for the manufacturer name. Name is compared case-insensitively.
+     *
+     * @param manufacturer Manufacturer name.
+     * @param chipset      Chipset.
+     */
+    public static void registerManufacturer(final String manufacturer, final Chipset chipset) {
+        if (manufacturer == null || manufacturer.isEmpty()) {
+            throw new IllegalArgumentException("Invalid manufacturer.");
+        }
+        validate(chipset);
+        synchronized (GXChipsetRegistry.class) {
+            Object[] tmp = sManufacturers;
+            Object[] list = new Object[tmp.length + 2];
+            list[0] = manufacturer;
+            list[1] = chipset;
+            //Latest registration is checked first.
+            System.arraycopy(tmp, 0, list, 2, tmp.length);
+            sManufacturers = list;
+        }
+    }
+
+    /**
+     * Find chipset.
+     *
+     * @param manufacturer Manufacturer name. Can be null.
+     * @param vendor       Vendor ID.
+     * @param product      Product ID.
+     * @return Chipset or null if chipset is unknown.
+     */
+    public static Chipset find(final String manufacturer, final int vendor, final int product) {
+        Chipset ret = sProducts.get(vendor << 16 | (product & 0xFFFF));
+        if (ret == null && manufacturer != null) {
+            Object[] list = sManufacturers;
+            for (int pos = 0; pos != list.length; pos += 2) {
+                if (((String) list[pos]).equalsIgnoreCase(manufacturer)) {
+                    return (Chipset) list[pos + 1];
+                }
+            }
+        }
+        if (ret == null) {
+            ret = sVendors.get(vendor);
+        }
+        return ret;
+    }
+}
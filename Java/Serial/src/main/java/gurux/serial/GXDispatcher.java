@@ -0,0 +1,170 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dispatcher delivers events to the listeners on the other thread.
+ *
+ * @author Gurux Ltd.
+ */
+abstract class GXDispatcher {
+    /**
+     * Event that can be merged or dropped before it's delivered.
+     * Received data and trace events are events. Control events, like errors,
+     * property changes and added or removed ports, are plain tasks and they are never dropped.
+     */
+    interface Event extends Runnable {
+        /**
+         * Merge next event to this event.
+         *
+         * @param next Next event.
+         * @return True, if event was merged.
+         */
+        boolean merge(Runnable next);
+
+        /**
+         * Event is dropped and it's not delivered.
+         */
+        void dropped();
+    }
+
+    /**
+     * Amount of events in the last delivered batch.
+     */
+    private volatile int mLastBatchSize;
+
+    /**
+     * Max amount of events in one batch.
+     */
+    private volatile int mMaxBatchSize;
+
+    /**
+     * Amount of dropped events. Events are dropped by several producer threads.
+     */
+    private final AtomicLong mDropped = new AtomicLong();
+
+    /**
+     * Amount of merged events.
+     */
+    private final AtomicLong mCoalesced = new AtomicLong();
+
+    /**
+     * Post new event.
+     *
+     * @param task Task that calls the listeners.
+     */
+    abstract void post(Runnable task);
+
+    /**
+     * Update batch statistics.
+     *
+     * @param count Amount of delivered events.
+     */
+    final void batchDelivered(final int count) {
+        mLastBatchSize = count;
+        if (count > mMaxBatchSize) {
+            mMaxBatchSize = count;
+        }
+    }
+
+    /**
+     * @return Amount of events in the last delivered batch.
+     */
+    final int getLastBatchSize() {
+        return mLastBatchSize;
+    }
+
+    /**
+     * @return Max amount of events in one batch.
+     */
+    final int getMaxBatchSize() {
+        return mMaxBatchSize;
+    }
+
+    /**
+     * Event is dropped.
+     *
+     * @param task Dropped event.
+     */
+    final void dropped(final Runnable task) {
+        mDropped.incrementAndGet();
+        if (task instanceof Event) {
+            ((Event) task).dropped();
+        }
+    }
+
+    /**
+     * Remove the oldest event that can be dropped. Control events are kept.
+     *
+     * @param queue Queued tasks.
+     * @return Removed event or null if there are only control events.
+     */
+    static Runnable pollDroppable(final ArrayDeque<Runnable> queue) {
+        Iterator<Runnable> it = queue.iterator();
+        while (it.hasNext()) {
+            Runnable task = it.next();
+            if (task instanceof Event) {
+                it.remove();
+                return task;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Event is merged to the previous event.
+     */
+    final void coalesced() {
+        mCoalesced.incrementAndGet();
+    }
+
+    /**
+     * @return Amount of dropped events.
+     */
+    final long getDropped() {
+        return mDropped.get();
+    }
+
+    /**
+     * @return Amount of merged events.
+     */
+    final long getCoalesced() {
+        return mCoalesced.get();
+    }
+}
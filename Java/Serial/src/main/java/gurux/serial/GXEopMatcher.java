@@ -0,0 +1,230 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import gurux.common.GXSynchronousMediaBase;
+
+/**
+ * Streaming end of packet matcher. All end of packet patterns are compiled once to
+ * the Aho-Corasick automaton and the match state is kept between received chunks,
+ * so end of packet is found also when it's split between two USB reads.
+ *
+ * @author Gurux Ltd.
+ */
+final class GXEopMatcher {
+    /**
+     * Amount of possible byte values.
+     */
+    private static final int ALPHABET = 256;
+
+    /**
+     * Next state for each state and byte value. Null if only single byte patterns are used.
+     */
+    private final int[] mNext;
+
+    /**
+     * Is pattern ended in the state.
+     */
+    private final boolean[] mOutput;
+
+    /**
+     * Single byte patterns. Null if longer patterns are used.
+     */
+    private final boolean[] mSingle;
+
+    /**
+     * Current state. State is used only by the thread that calls match.
+     */
+    private int mState;
+
+    /**
+     * Reset requests. Other threads request reset and it's applied in match.
+     */
+    private final AtomicInteger mResetRequests = new AtomicInteger();
+
+    /**
+     * Last applied reset request.
+     */
+    private int mResets;
+
+    /**
+     * Constructor.
+     *
+     * @param patterns End of packet patterns.
+     */
+    private GXEopMatcher(final List<byte[]> patterns) {
+        boolean single = true;
+        int total = 1;
+        for (byte[] it : patterns) {
+            single &= it.length == 1;
+            total += it.length;
+        }
+        if (single) {
+            mSingle = new boolean[ALPHABET];
+            for (byte[] it : patterns) {
+                mSingle[it[0] & 0xFF] = true;
+            }
+            mNext = null;
+            mOutput = null;
+            return;
+        }
+        mSingle = null;
+        //Build trie. Zero is root and -1 is missing transition.
+        int[] next = new int[total * ALPHABET];
+        Arrays.fill(next, -1);
+        boolean[] output = new boolean[total];
+        int count = 1;
+        for (byte[] it : patterns) {
+            int state = 0;
+            for (byte b : it) {
+                int pos = state * ALPHABET + (b & 0xFF);
+                if (next[pos] == -1) {
+                    next[pos] = count++;
+                }
+                state = next[pos];
+            }
+            output[state] = true;
+        }
+        //Add failure transitions in breadth first order so the trie becomes automaton.
+        int[] fail = new int[count];
+        int[] queue = new int[count];
+        int head = 0, tail = 0;
+        for (int c = 0; c != ALPHABET; ++c) {
+            int state = next[c];
+            if (state == -1) {
+                next[c] = 0;
+            } else {
+                fail[state] = 0;
+                queue[tail++] = state;
+            }
+        }
+        while (head != tail) {
+            int state = queue[head++];
+            output[state] |= output[fail[state]];
+            for (int c = 0; c != ALPHABET; ++c) {
+                int pos = state * ALPHABET + c;
+                int target = next[pos];
+                if (target == -1) {
+                    next[pos] = next[fail[state] * ALPHABET + c];
+                } else {
+                    fail[target] = next[fail[state] * ALPHABET + c];
+                    queue[tail++] = target;
+                }
+            }
+        }
+        mNext = next;
+        mOutput = output;
+    }
+
+    /**
+     * Compile end of packet patterns.
+     *
+     * @param eop End of packet. Object array is used if there are several patterns.
+     * @return Compiled matcher or null, if end of packet is not used.
+     */
+    static GXEopMatcher compile(final Object eop) {
+        if (eop == null) {
+            return null;
+        }
+        List<byte[]> patterns = new ArrayList<>();
+        if (eop instanceof Object[]) {
+            for (Object it : (Object[]) eop) {
+                add(patterns, it);
+            }
+        } else {
+            add(patterns, eop);
+        }
+        if (patterns.isEmpty()) {
+            return null;
+        }
+        return new GXEopMatcher(patterns);
+    }
+
+    private static void add(final List<byte[]> patterns, final Object eop) {
+        byte[] value = GXSynchronousMediaBase.getAsByteArray(eop);
+        if (value != null && value.length != 0) {
+            patterns.add(value);
+        }
+    }
+
+    /**
+     * Search end of packet from received data. Match state is kept between calls.
+     *
+     * @param data   Received data.
+     * @param offset Data offset.
+     * @param count  Amount of bytes.
+     * @return Position of the last byte of the end of packet or -1 if not found.
+     */
+    int match(final byte[] data, final int offset, final int count) {
+        final int end = offset + count;
+        int request = mResetRequests.get();
+        if (request != mResets) {
+            mResets = request;
+            mState = 0;
+        }
+        if (mSingle != null) {
+            for (int pos = offset; pos != end; ++pos) {
+                if (mSingle[data[pos] & 0xFF]) {
+                    return pos;
+                }
+            }
+            return -1;
+        }
+        int state = mState;
+        for (int pos = offset; pos != end; ++pos) {
+            state = mNext[state * ALPHABET + (data[pos] & 0xFF)];
+            if (mOutput[state]) {
+                //Next packet starts from the beginning.
+                mState = 0;
+                return pos;
+            }
+        }
+        mState = state;
+        return -1;
+    }
+
+    /**
+     * Reset match state. Reset can be requested from any thread and
+     * it's applied before next data is matched.
+     */
+    void reset() {
+        mResetRequests.incrementAndGet();
+    }
+}
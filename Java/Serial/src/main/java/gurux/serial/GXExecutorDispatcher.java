@@ -0,0 +1,198 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+import gurux.serial.enums.OverflowPolicy;
+
+/**
+ * Executor dispatcher delivers events to the listeners using the given executor.
+ * Events are kept in the bounded queue and they are delivered in order, one task at the time.
+ * Control events are always queued.
+ *
+ * @author Gurux Ltd.
+ */
+final class GXExecutorDispatcher extends GXDispatcher implements Runnable {
+    /**
+     * Executor where listeners are called.
+     */
+    private final Executor mExecutor;
+
+    /**
+     * Max amount of queued events.
+     */
+    private final int mCapacity;
+
+    /**
+     * What is done when the queue is full.
+     */
+    private final OverflowPolicy mPolicy;
+
+    /**
+     * Queued events.
+     */
+    private final ArrayDeque<Runnable> mQueue;
+
+    /**
+     * Is delivery task scheduled to the executor.
+     */
+    private boolean mScheduled;
+
+    /**
+     * Thread that delivers the events.
+     */
+    private Thread mThread;
+
+    /**
+     * Constructor.
+     *
+     * @param executor Executor where listeners are called.
+     * @param capacity Max amount of queued events.
+     * @param policy   What is done when the queue is full.
+     */
+    GXExecutorDispatcher(final Executor executor, final int capacity, final OverflowPolicy policy) {
+        mExecutor = executor;
+        mCapacity = capacity;
+        mPolicy = policy;
+        mQueue = new ArrayDeque<>(capacity);
+    }
+
+    /**
+     * @return Executor where listeners are called.
+     */
+    Executor getExecutor() {
+        return mExecutor;
+    }
+
+    @Override
+    void post(final Runnable task) {
+        Runnable added = task;
+        Runnable removed = null;
+        boolean schedule = false;
+        synchronized (this) {
+            //Overflow policy is used only with data and trace events.
+            if (mQueue.size() >= mCapacity && added instanceof Event) {
+                switch (mPolicy) {
+                    case BLOCK:
+                        //Listeners can raise new events when the queue is full.
+                        while (mQueue.size() >= mCapacity && mThread != Thread.currentThread()) {
+                            try {
+                                wait();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                removed = added;
+                                added = null;
+                                break;
+                            }
+                        }
+                        break;
+                    case DROP_NEWEST:
+                        removed = added;
+                        added = null;
+                        break;
+                    case COALESCE:
+                        Runnable last = mQueue.peekLast();
+                        if (last instanceof Event && ((Event) last).merge(added)) {
+                            coalesced();
+                            added = null;
+                            break;
+                        }
+                        //If event can't be merged the oldest event is dropped.
+                    case DROP_OLDEST:
+                        removed = pollDroppable(mQueue);
+                        if (removed == null) {
+                            //Queue is full of control events.
+                            removed = added;
+                            added = null;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (added != null) {
+                mQueue.add(added);
+                if (!mScheduled) {
+                    mScheduled = true;
+                    schedule = true;
+                }
+            }
+        }
+        if (removed != null) {
+            dropped(removed);
+        }
+        if (schedule) {
+            try {
+                mExecutor.execute(this);
+            } catch (RuntimeException ex) {
+                synchronized (this) {
+                    mScheduled = false;
+                }
+                throw ex;
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        int count = 0;
+        synchronized (this) {
+            mThread = Thread.currentThread();
+        }
+        while (true) {
+            Runnable task;
+            synchronized (this) {
+                task = mQueue.pollFirst();
+                if (task == null) {
+                    mScheduled = false;
+                    mThread = null;
+                    break;
+                }
+                notifyAll();
+            }
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                Log.e("GXSerial", "Listener failed.", ex);
+            }
+            ++count;
+        }
+        batchDelivered(count);
+    }
+}
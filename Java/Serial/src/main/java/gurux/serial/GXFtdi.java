@@ -35,10 +35,10 @@
 package gurux.serial;
 
 import android.hardware.usb.UsbDeviceConnection;
+import android.util.Log;
 
 import java.io.IOException;
 
-import gurux.io.BaudRate;
 import gurux.serial.enums.Chipset;
 
 /**
@@ -95,11 +95,27 @@ class GXFtdi extends GXChipset {
     private static final int FTDI_SIO_SET_ERROR_CHAR = 7;
     /* Set the error character */
     private static final int FTDI_SIO_SET_BREAK = (0x1 << 14);
+    private static final int FTDI_SIO_SET_LATENCY_TIMER = 9;
+    /* Set the latency timer */
+    private static final int FTDI_SIO_GET_LATENCY_TIMER = 10;
+    /* Get the latency timer */
     /**
      * Lenght of modem status header.
      */
     private static final int STATUS_LENGTH = 2;
 
+    /* Modem status bits. */
+    private static final int FTDI_STATUS_CTS = 0x10;
+    private static final int FTDI_STATUS_DSR = 0x20;
+    private static final int FTDI_STATUS_RI = 0x40;
+    private static final int FTDI_STATUS_RLSD = 0x80;
+
+    /* Line status bits. */
+    private static final int FTDI_STATUS_OE = 0x02;
+    private static final int FTDI_STATUS_PE = 0x04;
+    private static final int FTDI_STATUS_FE = 0x08;
+    private static final int FTDI_STATUS_BI = 0x10;
+
     private static final int SIO_SET_DTR_ENABLED = 0x0101;
     private static final int SIO_SET_DTR_DISABLED = 0x0100;
 
@@ -109,14 +125,22 @@ class GXFtdi extends GXChipset {
     private boolean mDtrEnable = false;
     private boolean mRtsEnable = false;
 
-    public static boolean isUsing(final String manufacturer, final int vendor, final int product) {
-        return (vendor == 1027 && (product == 24557) || product == 24577 || product == 24597) ||
-                //Tespro
-                (vendor == 0x403 && product == 0x6001) ||
-                //KoCoS
-                (vendor == 0x403 && product == 0x6015) ||
-                "FTDI".equalsIgnoreCase(manufacturer);
-    }
+    /**
+     * FTDI vendor and product IDs.
+     * Value is vendor &lt;&lt; 16 | product.
+     */
+    static final int[] IDS = {
+            0x0403 << 16 | 0x5FED,
+            //Tespro
+            0x0403 << 16 | 0x6001,
+            //KoCoS
+            0x0403 << 16 | 0x6015
+    };
+
+    /**
+     * Manufacturer name that is used if vendor and product IDs are unknown.
+     */
+    static final String MANUFACTURER = "FTDI";
 
     @Override
     public boolean isfilterStatus() {
@@ -125,48 +149,314 @@ class GXFtdi extends GXChipset {
 
     @Override
     public int removeStatus(byte[] data, int size, int maxPacketSize) {
-        System.arraycopy(data,
-                STATUS_LENGTH,
-                data,
-                0,
-                size - STATUS_LENGTH);
-        return size - STATUS_LENGTH;
-    }
-
-    private static int getBaudRateValue(BaudRate baudRate) {
-        int value;
-        switch (baudRate) {
-            case BAUD_RATE_1200:
-                value = 0x09C4;
-                break;
-            case BAUD_RATE_14400:
-                value = 0x80D0;
-                break;
-            case BAUD_RATE_19200:
-                value = 0x809C;
-                break;
-            case BAUD_RATE_2400:
-                value = 0x04E2;
-                break;
-            case BAUD_RATE_300:
-                value = 0x2710;
-                break;
-            case BAUD_RATE_38400:
-                value = 0xC04E;
-                break;
-            case BAUD_RATE_4800:
-                value = 0x0271;
-                break;
-            case BAUD_RATE_600:
-                value = 0x1388;
-                break;
-            case BAUD_RATE_9600:
-                value = 0x4138;
+        int target = 0;
+        for (int pos = 0; pos < size; pos += maxPacketSize) {
+            int count = Math.min(maxPacketSize, size - pos);
+            if (count < STATUS_LENGTH) {
                 break;
+            }
+            updateStatus(data[pos], data[pos + 1]);
+            count -= STATUS_LENGTH;
+            if (count != 0) {
+                //Data is compacted in place.
+                System.arraycopy(data, pos + STATUS_LENGTH, data, target, count);
+                target += count;
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Update modem status and line status counters from the status header.
+     *
+     * @param modemStatus Modem status byte.
+     * @param lineStatus  Line status byte.
+     */
+    private void updateStatus(final byte modemStatus, final byte lineStatus) {
+        int status = 0;
+        if ((modemStatus & FTDI_STATUS_CTS) != 0) {
+            status |= MODEM_STATUS_CTS;
+        }
+        if ((modemStatus & FTDI_STATUS_DSR) != 0) {
+            status |= MODEM_STATUS_DSR;
+        }
+        if ((modemStatus & FTDI_STATUS_RI) != 0) {
+            status |= MODEM_STATUS_RI;
+        }
+        if ((modemStatus & FTDI_STATUS_RLSD) != 0) {
+            status |= MODEM_STATUS_CD;
+        }
+        mModemStatus = status;
+        if ((lineStatus & (FTDI_STATUS_OE | FTDI_STATUS_PE | FTDI_STATUS_FE | FTDI_STATUS_BI)) != 0) {
+            if ((lineStatus & FTDI_STATUS_OE) != 0) {
+                ++mOverrunErrors;
+            }
+            if ((lineStatus & FTDI_STATUS_PE) != 0) {
+                ++mParityErrors;
+            }
+            if ((lineStatus & FTDI_STATUS_FE) != 0) {
+                ++mFramingErrors;
+            }
+            if ((lineStatus & FTDI_STATUS_BI) != 0) {
+                ++mBreakInterrupts;
+            }
+        }
+    }
+
+    @Override
+    public boolean isLatencyTimerSupported() {
+        return true;
+    }
+
+    @Override
+    int getSupportedModemStatus() {
+        return MODEM_STATUS_CTS | MODEM_STATUS_DSR | MODEM_STATUS_RI | MODEM_STATUS_CD;
+    }
+
+    @Override
+    int getLatencyTimer(final GXSerial serial, final UsbDeviceConnection connection) throws IOException {
+        byte[] value = new byte[1];
+        int ret = connection.controlTransfer(USB_SETUP_DEVICE_TO_HOST | USB_SETUP_TYPE_VENDOR,
+                FTDI_SIO_GET_LATENCY_TIMER, 0, 0, value, 1, serial.getWriteTimeout());
+        if (ret != 1) {
+            throw new IOException("Get latency timer failed: " + ret);
+        }
+        return value[0] & 0xFF;
+    }
+
+    @Override
+    void setLatencyTimer(final GXSerial serial, final UsbDeviceConnection connection, final int value) throws IOException {
+        int ret = connection.controlTransfer(FTDI_SIO_SET_DATA_REQUEST_TYPE, FTDI_SIO_SET_LATENCY_TIMER,
+                value, 0, null, 0, serial.getWriteTimeout());
+        if (ret != 0) {
+            throw new IOException("Set latency timer failed: " + ret);
+        }
+    }
+
+    /* Chip types. Encoding of the baud rate divisor depends from the chip type. */
+    static final int TYPE_AM = 0;
+    static final int TYPE_BM = 1;
+    static final int TYPE_2232C = 2;
+    static final int TYPE_R = 3;
+    static final int TYPE_2232H = 4;
+    static final int TYPE_4232H = 5;
+    static final int TYPE_232H = 6;
+    static final int TYPE_230X = 7;
+
+    /**
+     * Base clock of AM, BM, R and X chips.
+     */
+    private static final int C_CLK = 48000000;
+    /**
+     * Base clock of H chips.
+     */
+    private static final int H_CLK = 120000000;
+
+    /**
+     * Max allowed difference between requested and achieved baud rate in percent.
+     */
+    private static final int MAX_BAUD_RATE_ERROR = 5;
+
+    /**
+     * Sub-integer divisor codes. Divisor is counted in 1/8 steps.
+     */
+    private static final int[] FRAC_CODE = {0, 3, 2, 4, 1, 5, 6, 7};
+
+    /**
+     * AM chips support only 1/8, 1/4 and 1/2 fractions. Values used to round the divisor up.
+     */
+    private static final int[] AM_ADJUST_UP = {0, 0, 0, 1, 0, 3, 2, 1};
+
+    /**
+     * AM chips support only 1/8, 1/4 and 1/2 fractions. Values used to round the divisor down.
+     */
+    private static final int[] AM_ADJUST_DN = {0, 0, 0, 1, 0, 1, 0, 0};
+
+    /**
+     * Used chip type.
+     */
+    private int mType = TYPE_BM;
+
+    /**
+     * Get chip type from the device descriptor.
+     *
+     * @param rawDescriptors Raw descriptors.
+     * @return Chip type.
+     */
+    private static int getType(final byte[] rawDescriptors) {
+        if (rawDescriptors == null || rawDescriptors.length < 17) {
+            return TYPE_BM;
+        }
+        int bcdDevice = (rawDescriptors[12] & 0xFF) | ((rawDescriptors[13] & 0xFF) << 8);
+        switch (bcdDevice) {
+            case 0x200:
+                //AM chip with missing serial number is BM.
+                if (rawDescriptors[16] == 0) {
+                    return TYPE_BM;
+                }
+                return TYPE_AM;
+            case 0x500:
+                return TYPE_2232C;
+            case 0x600:
+                return TYPE_R;
+            case 0x700:
+                return TYPE_2232H;
+            case 0x800:
+                return TYPE_4232H;
+            case 0x900:
+                return TYPE_232H;
+            case 0x1000:
+                return TYPE_230X;
             default:
-                throw new RuntimeException("Invalid baud rate value.");
+                return TYPE_BM;
+        }
+    }
+
+    /**
+     * Is chip type H chip.
+     *
+     * @param type Chip type.
+     * @return True, if H chip is used.
+     */
+    private static boolean isHType(final int type) {
+        return type == TYPE_2232H || type == TYPE_4232H || type == TYPE_232H;
+    }
+
+    /**
+     * Calculate divisor for AM chips.
+     *
+     * @param baudRate Baud rate.
+     * @param divisor  Encoded divisor.
+     * @return Achieved baud rate.
+     */
+    static int toClockBitsAM(final int baudRate, final int[] divisor) {
+        int value = 24000000 / baudRate;
+        //Round down to supported fraction.
+        value -= AM_ADJUST_DN[value & 7];
+        int bestDivisor = 0, bestBaud = 0, bestDiff = 0;
+        for (int pos = 0; pos != 2; ++pos) {
+            int tryDivisor = value + pos;
+            if (tryDivisor <= 8) {
+                //Round up to minimum supported divisor.
+                tryDivisor = 8;
+            } else if (value < 16) {
+                //AM doesn't support divisors 9 through 15.
+                tryDivisor = 16;
+            } else {
+                tryDivisor += AM_ADJUST_UP[tryDivisor & 7];
+                if (tryDivisor > 0x1FFF8) {
+                    tryDivisor = 0x1FFF8;
+                }
+            }
+            int estimate = (24000000 + (tryDivisor / 2)) / tryDivisor;
+            int diff = Math.abs(baudRate - estimate);
+            if (pos == 0 || diff < bestDiff) {
+                bestDivisor = tryDivisor;
+                bestBaud = estimate;
+                bestDiff = diff;
+                if (diff == 0) {
+                    break;
+                }
+            }
+        }
+        int encoded = (bestDivisor >> 3) | (FRAC_CODE[bestDivisor & 7] << 14);
+        if (encoded == 1) {
+            //3000000 baud.
+            encoded = 0;
+        }
+        divisor[0] = encoded;
+        return bestBaud;
+    }
+
+    /**
+     * Calculate divisor for BM, R, X and H chips.
+     *
+     * @param baudRate Baud rate.
+     * @param clock    Base clock.
+     * @param clockDiv Clock divider.
+     * @param divisor  Encoded divisor.
+     * @return Achieved baud rate.
+     */
+    static int toClockBits(final int baudRate, final int clock, final int clockDiv, final int[] divisor) {
+        int bestBaud;
+        if (baudRate >= clock / clockDiv) {
+            divisor[0] = 0;
+            bestBaud = clock / clockDiv;
+        } else if (baudRate >= clock / (clockDiv + clockDiv / 2)) {
+            divisor[0] = 1;
+            bestBaud = clock / (clockDiv + clockDiv / 2);
+        } else if (baudRate >= clock / (2 * clockDiv)) {
+            divisor[0] = 2;
+            bestBaud = clock / (2 * clockDiv);
+        } else {
+            //Divisor is counted in 1/16 steps and rounded to 1/8 step.
+            int value = clock * 16 / clockDiv / baudRate;
+            int bestDivisor;
+            if ((value & 1) != 0) {
+                bestDivisor = value / 2 + 1;
+            } else {
+                bestDivisor = value / 2;
+            }
+            if (bestDivisor > 0x20000) {
+                bestDivisor = 0x1FFFF;
+            }
+            bestBaud = clock * 16 / clockDiv / bestDivisor;
+            if ((bestBaud & 1) != 0) {
+                bestBaud = bestBaud / 2 + 1;
+            } else {
+                bestBaud = bestBaud / 2;
+            }
+            divisor[0] = (bestDivisor >> 3) | (FRAC_CODE[bestDivisor & 7] << 14);
+        }
+        return bestBaud;
+    }
+
+    /**
+     * Calculate encoded baud rate divisor.
+     *
+     * @param baudRate Baud rate.
+     * @param type     Chip type.
+     * @param divisor  Encoded divisor.
+     * @return Achieved baud rate.
+     */
+    static int getBaudRateDivisor(final int baudRate, final int type, final int[] divisor) {
+        if (baudRate <= 0) {
+            throw new RuntimeException("Invalid baud rate value.");
+        }
+        int actual;
+        if (isHType(type)) {
+            if (baudRate * 10 > H_CLK / 0x3FFF) {
+                actual = toClockBits(baudRate, H_CLK, 10, divisor);
+                //Switch on 120 MHz clock.
+                divisor[0] |= 0x20000;
+            } else {
+                actual = toClockBits(baudRate, C_CLK, 16, divisor);
+            }
+        } else if (type == TYPE_AM) {
+            actual = toClockBitsAM(baudRate, divisor);
+        } else {
+            actual = toClockBits(baudRate, C_CLK, 16, divisor);
+        }
+        if ((long) Math.abs(actual - baudRate) * 100 > (long) baudRate * MAX_BAUD_RATE_ERROR) {
+            throw new RuntimeException("Invalid baud rate value: " + baudRate);
         }
-        return value;
+        return actual;
+    }
+
+    /**
+     * Get wIndex value of the set baud rate request.
+     *
+     * @param divisor Encoded divisor.
+     * @param type    Chip type.
+     * @param port    Port index. Interface A is 1.
+     * @return wIndex value.
+     */
+    static int getBaudRateIndex(final int divisor, final int type, final int port) {
+        if (type == TYPE_2232C || isHType(type)) {
+            //High byte of the index is used with multi port and H chips. Low byte is the port index.
+            return ((divisor >> 8) & 0xFF00) | port;
+        }
+        return divisor >> 16;
     }
 
     public boolean open(GXSerial serial, UsbDeviceConnection connection, byte[] rawDescriptors) throws IOException {
@@ -183,11 +473,21 @@ class GXFtdi extends GXChipset {
             return false;
         }
 
+        mType = getType(rawDescriptors);
+        int[] divisor = new int[1];
+        mActualBaudRate = getBaudRateDivisor(serial.getBaudRateValue(), mType, divisor);
+        int index = getBaudRateIndex(divisor[0], mType, serial.mUsbIf.getId() + 1);
         ret = connection.controlTransfer(FTDI_SIO_SET_DATA_REQUEST_TYPE, FTDI_SIO_SET_BAUD_RATE,
-                getBaudRateValue(serial.getBaudRate()), 0, null, 0, 0);
+                divisor[0] & 0xFFFF, index, null, 0, 0);
         if (ret == -1) {
             return false;
         }
+        try {
+            setLatencyTimer(serial, connection, serial.mLatencyTimer);
+        } catch (IOException ex) {
+            //Port can be used with the default latency timer.
+            Log.w("GXSerial", ex.getMessage());
+        }
         return true;
     }
 
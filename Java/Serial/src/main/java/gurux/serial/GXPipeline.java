@@ -0,0 +1,341 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pipeline keeps several requests outstanding at the same time. Responses are matched to the
+ * requests using the correlation keys or in FIFO order if correlation is not given.
+ * Responses that don't match any request are counted in {@link #getUnmatched()}.
+ * <p>
+ * Responses are read using data listener, so frame decoder must be set for the media
+ * to get complete frames.
+ *
+ * @author Gurux Ltd
+ * @see GXSerial#setFrameDecoder
+ */
+public class GXPipeline implements IGXSerialDataListener, AutoCloseable {
+    /**
+     * Outstanding request.
+     */
+    private static final class Entry {
+        /**
+         * Correlation key. Null if FIFO order is used.
+         */
+        private final Object mKey;
+
+        /**
+         * Future that completes with the response.
+         */
+        private final CompletableFuture<byte[]> mFuture = new CompletableFuture<>();
+
+        /**
+         * Deadline timer.
+         */
+        private ScheduledFuture<?> mTimer;
+
+        /**
+         * Constructor.
+         *
+         * @param key Correlation key.
+         */
+        Entry(final Object key) {
+            mKey = key;
+        }
+    }
+
+    /**
+     * Media where requests are sent.
+     */
+    private final GXSerial mMedia;
+
+    /**
+     * Correlation. Null if FIFO order is used.
+     */
+    private final IGXCorrelation mCorrelation;
+
+    /**
+     * Amount of requests that can be outstanding.
+     */
+    private final Semaphore mWindow;
+
+    /**
+     * Window size.
+     */
+    private final int mWindowSize;
+
+    /**
+     * Outstanding requests in FIFO order.
+     */
+    private final ArrayDeque<Entry> mQueue = new ArrayDeque<>();
+
+    /**
+     * Outstanding requests by correlation key.
+     */
+    private final HashMap<Object, Entry> mRequests = new HashMap<>();
+
+    /**
+     * Deadline timer.
+     */
+    private final ScheduledExecutorService mTimer;
+
+    /**
+     * Send lock.
+     */
+    private final Object mSendLock = new Object();
+
+    /**
+     * Amount of responses that didn't match any request.
+     */
+    private volatile long mUnmatched;
+
+    /**
+     * Is pipeline closed.
+     */
+    private boolean mClosed;
+
+    /**
+     * Constructor. Responses are matched in FIFO order.
+     *
+     * @param media  Media where requests are sent.
+     * @param window Amount of requests that can be outstanding.
+     */
+    public GXPipeline(final GXSerial media, final int window) {
+        this(media, window, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param media       Media where requests are sent.
+     * @param window      Amount of requests that can be outstanding.
+     * @param correlation Correlation that matches responses to requests. If null, FIFO order is used.
+     */
+    public GXPipeline(final GXSerial media, final int window, final IGXCorrelation correlation) {
+        if (media == null) {
+            throw new IllegalArgumentException("media");
+        }
+        if (window < 1) {
+            throw new IllegalArgumentException("Invalid window size.");
+        }
+        if (media.getFrameDecoder() == null) {
+            throw new IllegalArgumentException("Frame decoder is not set.");
+        }
+        mMedia = media;
+        mWindowSize = window;
+        mWindow = new Semaphore(window);
+        mCorrelation = correlation;
+        mTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                Thread t = new Thread(r, "GXPipeline");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        media.addListener(this);
+    }
+
+    /**
+     * @return Amount of requests that can be outstanding.
+     */
+    public final int getWindowSize() {
+        return mWindowSize;
+    }
+
+    /**
+     * @return Amount of outstanding requests.
+     */
+    public final int getOutstanding() {
+        return mWindowSize - mWindow.availablePermits();
+    }
+
+    /**
+     * @return Amount of responses that didn't match any request.
+     */
+    public final long getUnmatched() {
+        return mUnmatched;
+    }
+
+    /**
+     * Send request. If window is full, caller waits until one of the outstanding
+     * requests is completed.
+     *
+     * @param data    Request to send.
+     * @param timeout Time in milliseconds how long response is waited.
+     *                Future fails with TimeoutException if response is not received.
+     * @return Future that completes with the response.
+     * @throws Exception Send failed.
+     */
+    public final CompletableFuture<byte[]> send(final byte[] data, final int timeout) throws Exception {
+        if (timeout < 1) {
+            throw new IllegalArgumentException("Invalid timeout.");
+        }
+        mWindow.acquire();
+        Entry entry = null;
+        boolean queued = false;
+        try {
+            Object key = null;
+            if (mCorrelation != null) {
+                key = mCorrelation.getRequestKey(data);
+                if (key == null) {
+                    throw new IllegalArgumentException("Request key is not found.");
+                }
+            }
+            entry = new Entry(key);
+            //Request is queued and sent under the same lock so queue order is the wire order.
+            synchronized (mSendLock) {
+                synchronized (this) {
+                    if (mClosed) {
+                        throw new IllegalStateException("Pipeline is closed.");
+                    }
+                    if (key != null) {
+                        if (mRequests.containsKey(key)) {
+                            throw new IllegalArgumentException("Request is already outstanding.");
+                        }
+                        mRequests.put(key, entry);
+                    } else {
+                        mQueue.add(entry);
+                    }
+                    queued = true;
+                    final Entry tmp = entry;
+                    entry.mTimer = mTimer.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (remove(tmp)) {
+                                tmp.mFuture.completeExceptionally(new TimeoutException("Response not received."));
+                            }
+                        }
+                    }, timeout, TimeUnit.MILLISECONDS);
+                }
+                mMedia.send(data);
+            }
+        } catch (Exception ex) {
+            //Window permit is released on every failure.
+            if (!queued) {
+                mWindow.release();
+            } else if (remove(entry)) {
+                entry.mFuture.completeExceptionally(ex);
+            }
+            throw ex;
+        }
+        return entry.mFuture;
+    }
+
+    /**
+     * Remove outstanding request.
+     *
+     * @param entry Outstanding request.
+     * @return True, if request was outstanding.
+     */
+    private boolean remove(final Entry entry) {
+        synchronized (this) {
+            boolean ret;
+            if (entry.mKey != null) {
+                ret = mRequests.remove(entry.mKey, entry);
+            } else {
+                ret = mQueue.remove(entry);
+            }
+            if (!ret) {
+                return false;
+            }
+        }
+        if (entry.mTimer != null) {
+            entry.mTimer.cancel(false);
+        }
+        mWindow.release();
+        return true;
+    }
+
+    @Override
+    public final void onReceived(final Object sender, final byte[] buffer, final int offset,
+                                 final int length) {
+        Entry entry = null;
+        synchronized (this) {
+            if (mCorrelation != null) {
+                //Keyed response is never matched in FIFO order.
+                Object key = mCorrelation.getResponseKey(buffer, offset, length);
+                if (key != null) {
+                    entry = mRequests.get(key);
+                }
+            } else {
+                entry = mQueue.peekFirst();
+            }
+        }
+        if (entry == null || !remove(entry)) {
+            ++mUnmatched;
+            return;
+        }
+        byte[] data = new byte[length];
+        System.arraycopy(buffer, offset, data, 0, length);
+        entry.mFuture.complete(data);
+    }
+
+    /**
+     * Close pipeline. Outstanding requests are cancelled.
+     */
+    @Override
+    public final void close() {
+        List<Entry> entries = new ArrayList<>();
+        synchronized (this) {
+            if (mClosed) {
+                return;
+            }
+            mClosed = true;
+            entries.addAll(mQueue);
+            entries.addAll(mRequests.values());
+        }
+        mMedia.removeListener(this);
+        for (Entry it : entries) {
+            if (remove(it)) {
+                it.mFuture.completeExceptionally(new CancellationException("Pipeline is closed."));
+            }
+        }
+        mTimer.shutdownNow();
+    }
+}
@@ -193,6 +193,29 @@ public class GXPort {
     }
 
 
+    /**
+     * Copy port information.
+     *
+     * @param port Port name of the new port.
+     * @return New port.
+     */
+    final GXPort copy(final String port) {
+        GXPort ret = new GXPort();
+        ret.mPort = port;
+        ret.mManufacturer = mManufacturer;
+        ret.mVendor = mVendor;
+        ret.mProduct = mProduct;
+        ret.mProductId = mProductId;
+        ret.mVendorId = mVendorId;
+        ret.mSerial = mSerial;
+        ret.mVersion = mVersion;
+        if (mRawDescriptors != null) {
+            ret.mRawDescriptors = mRawDescriptors.clone();
+        }
+        ret.mChipset = mChipset;
+        return ret;
+    }
+
     @NonNull
     @Override
     public String toString() {
@@ -0,0 +1,121 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executors for USB port enumeration. Descriptor reads of several devices are
+ * run in parallel and hotplug events are handled one by one in the order they
+ * are received, so USB I/O is never made in the main thread.
+ * <p>
+ * Threads are daemon threads and they are released when they are idle.
+ *
+ * @author Gurux Ltd.
+ */
+final class GXPortEnumerator {
+    /**
+     * Maximum amount of devices that are read in parallel.
+     */
+    private static final int PARALLEL_COUNT = 4;
+
+    /**
+     * How long idle thread is kept alive in seconds.
+     */
+    private static final int KEEP_ALIVE = 30;
+
+    /**
+     * Enumeration executor.
+     */
+    private static Executor sEnumerator;
+
+    /**
+     * Hotplug executor.
+     */
+    private static Executor sHotplug;
+
+    /**
+     * Constructor.
+     */
+    private GXPortEnumerator() {
+
+    }
+
+    /**
+     * Create executor where idle threads are released.
+     *
+     * @param count Thread count.
+     * @param name  Thread name.
+     * @return Executor.
+     */
+    private static Executor create(final int count, final String name) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(count, count,
+                KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable r) {
+                        Thread t = new Thread(r, name);
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * @return Executor where USB device descriptors are read in parallel.
+     */
+    static synchronized Executor getEnumerator() {
+        if (sEnumerator == null) {
+            sEnumerator = create(PARALLEL_COUNT, "GXSerial enumerator");
+        }
+        return sEnumerator;
+    }
+
+    /**
+     * @return Executor where attached and detached devices are handled in order.
+     */
+    static synchronized Executor getHotplug() {
+        if (sHotplug == null) {
+            sHotplug = create(1, "GXSerial hotplug");
+        }
+        return sHotplug;
+    }
+}
@@ -0,0 +1,235 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+import android.hardware.usb.UsbDevice;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Port registry keeps the list of available serial ports. Ports are read from
+ * the snapshot without locking and the list is updated incrementally when
+ * USB devices are attached or detached. Ports are copied when they are added or
+ * returned, so the caller can't modify the registry.
+ * <p>
+ * Descriptor information is cached by USB serial number, so device is not
+ * opened again when it's re-attached. Only the most recently used devices are cached.
+ *
+ * @author Gurux Ltd.
+ */
+final class GXPortRegistry {
+    /**
+     * Empty port list.
+     */
+    private static final GXPort[] EMPTY = new GXPort[0];
+
+    /**
+     * Snapshot of the available ports. Array and ports are never modified.
+     */
+    private volatile GXPort[] mPorts = EMPTY;
+
+    /**
+     * Are USB devices enumerated.
+     */
+    private volatile boolean mEnumerated;
+
+    /**
+     * Maximum amount of cached devices.
+     */
+    private static final int CACHE_SIZE = 32;
+
+    /**
+     * Cached port information. Least recently used device is removed when cache is full.
+     * Guarded by mCache.
+     */
+    private final LinkedHashMap<String, GXPort> mCache = new LinkedHashMap<String, GXPort>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, GXPort> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * @return Copy of the available ports.
+     */
+    GXPort[] getPorts() {
+        GXPort[] ports = mPorts;
+        GXPort[] ret = new GXPort[ports.length];
+        for (int pos = 0; pos != ports.length; ++pos) {
+            ret[pos] = ports[pos].copy(ports[pos].getPort());
+        }
+        return ret;
+    }
+
+    /**
+     * @return Are USB devices enumerated.
+     */
+    boolean isEnumerated() {
+        return mEnumerated;
+    }
+
+    /**
+     * @param value Are USB devices enumerated.
+     */
+    void setEnumerated(final boolean value) {
+        mEnumerated = value;
+    }
+
+    /**
+     * Find port.
+     *
+     * @param ports Ports.
+     * @param name  Port name.
+     * @return Index of the port or -1 if port is not found.
+     */
+    private static int indexOf(final GXPort[] ports, final String name) {
+        for (int pos = 0; pos != ports.length; ++pos) {
+            if (ports[pos].getPort().equals(name)) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Is port added.
+     *
+     * @param name Port name.
+     * @return True, if port is added.
+     */
+    boolean contains(final String name) {
+        return indexOf(mPorts, name) != -1;
+    }
+
+    /**
+     * Add new port. Copy of the port is added.
+     *
+     * @param port Port to add.
+     * @return True, if port was added. False, if port is already added.
+     */
+    synchronized boolean add(final GXPort port) {
+        GXPort[] ports = mPorts;
+        if (indexOf(ports, port.getPort()) != -1) {
+            return false;
+        }
+        GXPort[] tmp = new GXPort[ports.length + 1];
+        System.arraycopy(ports, 0, tmp, 0, ports.length);
+        tmp[ports.length] = port.copy(port.getPort());
+        mPorts = tmp;
+        return true;
+    }
+
+    /**
+     * Remove port.
+     *
+     * @param name  Port name.
+     * @param index Index of the removed port is returned here.
+     * @return Removed port or null if port is not found.
+     */
+    synchronized GXPort remove(final String name, final int[] index) {
+        GXPort[] ports = mPorts;
+        int pos = indexOf(ports, name);
+        if (pos == -1) {
+            return null;
+        }
+        GXPort[] tmp = new GXPort[ports.length - 1];
+        System.arraycopy(ports, 0, tmp, 0, pos);
+        System.arraycopy(ports, pos + 1, tmp, pos, tmp.length - pos);
+        //Hotplug keeps the list up to date, so devices are not enumerated again.
+        mPorts = tmp;
+        index[0] = pos;
+        return ports[pos];
+    }
+
+    /**
+     * Get cache key of the USB device. Device name changes every time when device is
+     * attached and USB port path is not available, so only devices that have a USB
+     * serial number are cached.
+     *
+     * @param device USB device.
+     * @return Cache key or null if device can't be cached.
+     */
+    static String getKey(final UsbDevice device) {
+        String serial = null;
+        try {
+            serial = device.getSerialNumber();
+        } catch (SecurityException e) {
+            //Serial number can't be read without permission.
+        }
+        if (serial == null || serial.isEmpty()) {
+            return null;
+        }
+        return Integer.toHexString(device.getVendorId()) + ':'
+                + Integer.toHexString(device.getProductId()) + ':' + serial;
+    }
+
+    /**
+     * Get cached port information.
+     *
+     * @param device USB device.
+     * @return New port with the cached information or null if device is not cached.
+     */
+    GXPort getCached(final UsbDevice device) {
+        String key = getKey(device);
+        if (key == null) {
+            return null;
+        }
+        GXPort port;
+        synchronized (mCache) {
+            port = mCache.get(key);
+        }
+        if (port == null) {
+            return null;
+        }
+        return port.copy(device.getDeviceName());
+    }
+
+    /**
+     * Cache port information.
+     *
+     * @param device USB device.
+     * @param port   Port information.
+     */
+    void putCached(final UsbDevice device, final GXPort port) {
+        String key = getKey(device);
+        if (key != null) {
+            GXPort value = port.copy(port.getPort());
+            synchronized (mCache) {
+                mCache.put(key, value);
+            }
+        }
+    }
+}
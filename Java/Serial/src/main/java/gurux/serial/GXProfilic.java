@@ -63,21 +63,22 @@ class GXProfilic extends GXChipset {
     private static final int PROLIFIC_VENDOR_OUT_REQTYPE = UsbConstants.USB_DIR_OUT
             | UsbConstants.USB_TYPE_VENDOR;
 
-    public static boolean isUsing(final String manufacturer, int vendor, int product) {
-        /*Aten UC-232*/
-        if ((vendor == 0x557 && product == 0x2008) ||
-                /*Prolific BF-810*/
-                (vendor == 1659 && product == 8963) ||
-                /*CadyCE*/
-                (vendor == 1659 && product == 0x23A3)) {
-            return true;
-        }
-        return false;
-    }
+    /**
+     * Profilic vendor and product IDs.
+     * Value is vendor &lt;&lt; 16 | product.
+     */
+    static final int[] IDS = {
+            /*Aten UC-232*/
+            0x0557 << 16 | 0x2008,
+            /*Prolific BF-810*/
+            0x067B << 16 | 0x2303,
+            /*CadyCE*/
+            0x067B << 16 | 0x23A3
+    };
 
     public boolean open(GXSerial serial, UsbDeviceConnection connection, byte[] rawDescriptors) throws IOException {
         byte[] lineRequestData = new byte[7];
-        int baudRate = serial.getBaudRate().getValue();
+        int baudRate = serial.getBaudRateValue();
         lineRequestData[0] = (byte) (baudRate & 0xff);
         lineRequestData[1] = (byte) ((baudRate >> 8) & 0xff);
         lineRequestData[2] = (byte) ((baudRate >> 16) & 0xff);
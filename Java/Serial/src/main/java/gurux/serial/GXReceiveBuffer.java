@@ -0,0 +1,236 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+//
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2.
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reference counted receive buffer. Buffers are taken from the pool and they are returned
+ * to the pool when the last reference is released.
+ *
+ * @author Gurux Ltd
+ */
+public final class GXReceiveBuffer {
+    /**
+     * Buffer data.
+     */
+    private final byte[] mData;
+
+    /**
+     * Amount of bytes in the buffer.
+     */
+    private int mSize;
+
+    /**
+     * Reference count.
+     */
+    private final AtomicInteger mReferences = new AtomicInteger();
+
+    /**
+     * Owner pool.
+     */
+    private final GXReceiveBufferPool mPool;
+
+    /**
+     * Delivery event. Event is created once and reused while buffer is pooled.
+     */
+    private DeliveryEvent mEvent;
+
+    /**
+     * Event that delivers the buffer to the receive buffer listeners.
+     */
+    private static final class DeliveryEvent implements GXDispatcher.Event {
+        /**
+         * Delivered buffer.
+         */
+        private final GXReceiveBuffer mBuffer;
+
+        /**
+         * Media that sends the event.
+         */
+        private GXSerial mSender;
+
+        /**
+         * Listeners that hold a reference to the buffer.
+         */
+        private IGXReceiveBufferListener[] mListeners;
+
+        /**
+         * Constructor.
+         *
+         * @param buffer Delivered buffer.
+         */
+        DeliveryEvent(final GXReceiveBuffer buffer) {
+            mBuffer = buffer;
+        }
+
+        @Override
+        public void run() {
+            //Buffer can be reused when last listener reference is released.
+            final GXSerial sender = mSender;
+            final IGXReceiveBufferListener[] listeners = mListeners;
+            RuntimeException error = null;
+            for (IGXReceiveBufferListener it : listeners) {
+                //Failing listener doesn't prevent delivery to the other listeners.
+                try {
+                    it.onReceived(sender, mBuffer);
+                } catch (RuntimeException ex) {
+                    if (error == null) {
+                        error = ex;
+                    } else {
+                        error.addSuppressed(ex);
+                    }
+                } finally {
+                    mBuffer.release();
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+
+        @Override
+        public boolean merge(final Runnable next) {
+            return false;
+        }
+
+        @Override
+        public void dropped() {
+            //Listener references are released when event is not delivered.
+            final IGXReceiveBufferListener[] listeners = mListeners;
+            for (int pos = 0; pos != listeners.length; ++pos) {
+                mBuffer.release();
+            }
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param pool     Owner pool.
+     * @param capacity Buffer capacity.
+     */
+    GXReceiveBuffer(final GXReceiveBufferPool pool, final int capacity) {
+        mPool = pool;
+        mData = new byte[capacity];
+    }
+
+    /**
+     * Buffer data. Only the first {@link #getSize()} bytes are valid.
+     *
+     * @return Buffer data.
+     */
+    public byte[] getData() {
+        return mData;
+    }
+
+    /**
+     * @return Amount of bytes in the buffer.
+     */
+    public int getSize() {
+        return mSize;
+    }
+
+    /**
+     * Set amount of bytes in the buffer.
+     *
+     * @param value Amount of bytes.
+     */
+    void setSize(final int value) {
+        mSize = value;
+    }
+
+    /**
+     * Get buffer data as a new byte array.
+     *
+     * @return Copy of the buffer data.
+     */
+    public byte[] toArray() {
+        byte[] data = new byte[mSize];
+        System.arraycopy(mData, 0, data, 0, mSize);
+        return data;
+    }
+
+    /**
+     * Increase reference count. Each call must be matched with {@link #release()}.
+     *
+     * @return This buffer.
+     */
+    public GXReceiveBuffer retain() {
+        if (mReferences.getAndIncrement() <= 0) {
+            mReferences.getAndDecrement();
+            throw new IllegalStateException("Receive buffer is already released.");
+        }
+        return this;
+    }
+
+    /**
+     * Decrease reference count. Buffer is returned to the pool when the last reference is released
+     * and it can't be used after that.
+     */
+    public void release() {
+        int value = mReferences.decrementAndGet();
+        if (value == 0) {
+            mPool.release(this);
+        } else if (value < 0) {
+            mReferences.incrementAndGet();
+            throw new IllegalStateException("Receive buffer is already released.");
+        }
+    }
+
+    /**
+     * Prepare event that delivers this buffer to the listeners.
+     * Buffer must be retained once for each listener.
+     *
+     * @param sender    Media that sends the event.
+     * @param listeners Listeners.
+     * @return Delivery event.
+     */
+    GXDispatcher.Event prepare(final GXSerial sender, final IGXReceiveBufferListener[] listeners) {
+        if (mEvent == null) {
+            mEvent = new DeliveryEvent(this);
+        }
+        mEvent.mSender = sender;
+        mEvent.mListeners = listeners;
+        return mEvent;
+    }
+
+    /**
+     * Take buffer in use. Reference count is set to one.
+     */
+    void acquire() {
+        mReferences.set(1);
+    }
+}
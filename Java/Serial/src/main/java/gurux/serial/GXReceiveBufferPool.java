@@ -0,0 +1,114 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+//
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2.
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+/**
+ * Pool of receive buffers. Buffers are reused so received data can be delivered
+ * without allocating new buffers for each received chunk.
+ *
+ * @author Gurux Ltd
+ */
+final class GXReceiveBufferPool {
+    /**
+     * Max amount of free buffers that are kept in the pool.
+     */
+    private static final int MAX_FREE_BUFFERS = 32;
+
+    /**
+     * Free buffers.
+     */
+    private final GXReceiveBuffer[] mFree = new GXReceiveBuffer[MAX_FREE_BUFFERS];
+
+    /**
+     * Amount of free buffers.
+     */
+    private int mCount;
+
+    /**
+     * Capacity of the pooled buffers.
+     */
+    private final int mCapacity;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity Capacity of the pooled buffers.
+     */
+    GXReceiveBufferPool(final int capacity) {
+        mCapacity = capacity;
+    }
+
+    /**
+     * Get buffer from the pool. New buffer is allocated if pool is empty.
+     *
+     * @param size Needed size.
+     * @return Buffer with reference count one.
+     */
+    GXReceiveBuffer acquire(final int size) {
+        GXReceiveBuffer buff = null;
+        if (size <= mCapacity) {
+            synchronized (this) {
+                if (mCount != 0) {
+                    buff = mFree[--mCount];
+                    mFree[mCount] = null;
+                }
+            }
+            if (buff == null) {
+                buff = new GXReceiveBuffer(this, mCapacity);
+            }
+        } else {
+            //Oversized buffers are not pooled.
+            buff = new GXReceiveBuffer(this, size);
+        }
+        buff.setSize(size);
+        buff.acquire();
+        return buff;
+    }
+
+    /**
+     * Return buffer to the pool.
+     *
+     * @param buff Released buffer.
+     */
+    void release(final GXReceiveBuffer buff) {
+        if (buff.getData().length == mCapacity) {
+            synchronized (this) {
+                if (mCount != mFree.length) {
+                    mFree[mCount++] = buff;
+                }
+            }
+        }
+    }
+}
@@ -37,9 +37,6 @@ package gurux.serial;
 import android.hardware.usb.UsbDeviceConnection;
 import android.hardware.usb.UsbEndpoint;
 
-import java.io.ByteArrayOutputStream;
-
-import gurux.common.GXSynchronousMediaBase;
 import gurux.common.ReceiveEventArgs;
 import gurux.common.TraceEventArgs;
 import gurux.common.enums.TraceLevel;
@@ -75,6 +72,46 @@ class GXReceiveThread extends Thread {
      */
     private long mBytesReceived = 0;
 
+    /**
+     * Reader that reads data from the bulk IN endpoint.
+     */
+    private final GXBulkReader mReader;
+
+    /**
+     * Pool of buffers that are delivered to the receive buffer listeners.
+     */
+    private final GXReceiveBufferPool mPool;
+
+    /**
+     * Buffer where received data is collected when receive delay is used.
+     */
+    private final byte[] mAggregate;
+
+    /**
+     * Amount of collected bytes.
+     */
+    private int mAggregateSize;
+
+    /**
+     * Collected data is delivered when it reaches this size.
+     */
+    private final int mAggregateMaxSize;
+
+    /**
+     * Time when the first collected byte was received in nanoseconds.
+     */
+    private long mAggregateStart;
+
+    /**
+     * Time when the last collected byte was received in nanoseconds.
+     */
+    private long mAggregateLast;
+
+    /**
+     * Frame decoder that is used. Null if received data is not decoded.
+     */
+    private IGXFrameDecoder mDecoder;
+
     /**
      * Constructor.
      *
@@ -90,6 +127,20 @@ class GXReceiveThread extends Thread {
         } else {
             mChipset = null;
         }
+        int size = input.getMaxPacketSize();
+        if (parent.getReceiveTransferSize() > size) {
+            size = ((parent.getReceiveTransferSize() + size - 1) / size) * size;
+        }
+        int count = parent.getReceiveRequestCount();
+        mReader = new GXBulkReader(new GXUsbBulkIn(conn, input, Math.max(count, 1)), size, count);
+        mAggregateMaxSize = parent.getReceiveMaxSize();
+        mAggregate = new byte[Math.max(size, mAggregateMaxSize)];
+        //Pooled buffers are sized for aggregated data only if data is aggregated.
+        if (parent.getReceiveDelay() > 0) {
+            mPool = new GXReceiveBufferPool(mAggregate.length);
+        } else {
+            mPool = new GXReceiveBufferPool(size);
+        }
     }
 
     /**
@@ -112,32 +163,41 @@ class GXReceiveThread extends Thread {
      * Handle received data.
      *
      * @param buffer Received data from the serial port.
+     * @param offset Offset of the received data.
+     * @param len    Amount of received bytes.
      */
-    private void handleReceivedData(final byte[] buffer, final int len) {
-        mBytesReceived += len;
-        int totalCount = 0;
-        if (mParentMedia.getIsSynchronous()) {
+    private void handleReceivedData(final byte[] buffer, final int offset, final int len) {
+        if (mParentMedia.hasDataListeners()) {
+            mParentMedia.notifyData(buffer, offset, len, mPool);
+        }
+        GXRingReceiver ring = mParentMedia.getRing();
+        if (ring != null && mParentMedia.getIsSynchronous()) {
+            if (mParentMedia.getTrace() == TraceLevel.VERBOSE) {
+                mParentMedia.notifyTrace(new gurux.common.TraceEventArgs(TraceTypes.RECEIVED, buffer, offset, len));
+            }
+            if (ring.write(buffer, offset, len) != len) {
+                mParentMedia.notifyError(new RuntimeException("Receive buffer overflow."));
+            }
+        } else if (mParentMedia.getIsSynchronous()) {
             TraceEventArgs arg = null;
             synchronized (mParentMedia.getSyncBase().getSync()) {
-                mParentMedia.getSyncBase().appendData(buffer, 0, len);
-                // Search End of Packet if given.
-                if (mParentMedia.getEop() != null) {
-                    if (mParentMedia.getEop() instanceof Object[]) {
-                        for (Object eop : (Object[]) mParentMedia.getEop()) {
-                            totalCount = GXSynchronousMediaBase.indexOf(buffer,
-                                    GXSynchronousMediaBase.getAsByteArray(eop), 0, len);
-                            if (totalCount != -1) {
-                                break;
-                            }
-                        }
-                    } else {
-                        totalCount = GXSynchronousMediaBase.indexOf(buffer,
-                                GXSynchronousMediaBase.getAsByteArray(mParentMedia.getEop()), 0, len);
+                mParentMedia.getSyncBase().appendData(buffer, offset, len);
+                int end = offset + len - 1;
+                // Search End of Packet if given. Decoded frames are always complete.
+                GXEopMatcher eop = mParentMedia.getEopMatcher();
+                if (eop != null && mDecoder == null) {
+                    //Search is continued after the match, so all packets in the chunk are found.
+                    end = -1;
+                    int pos = offset, count = len, index;
+                    while (count != 0 && (index = eop.match(buffer, pos, count)) != -1) {
+                        end = index;
+                        count -= index + 1 - pos;
+                        pos = index + 1;
                     }
                 }
-                if (totalCount != -1) {
+                if (end != -1) {
                     if (mParentMedia.getTrace() == TraceLevel.VERBOSE) {
-                        arg = new gurux.common.TraceEventArgs(TraceTypes.RECEIVED, buffer, 0, totalCount + 1);
+                        arg = new gurux.common.TraceEventArgs(TraceTypes.RECEIVED, buffer, offset, end + 1 - offset);
                     }
                     mParentMedia.getSyncBase().setReceived();
                 }
@@ -147,57 +207,193 @@ class GXReceiveThread extends Thread {
             }
         } else {
             mParentMedia.getSyncBase().resetReceivedSize();
-            byte[] data = new byte[len];
-            System.arraycopy(buffer, 0, data, 0, len);
-            if (mParentMedia.getTrace() == TraceLevel.VERBOSE) {
-                mParentMedia.notifyTrace(new gurux.common.TraceEventArgs(TraceTypes.RECEIVED, data));
+            if (mParentMedia.hasReceiveBufferListeners()) {
+                GXReceiveBuffer buff = mPool.acquire(len);
+                System.arraycopy(buffer, offset, buff.getData(), 0, len);
+                mParentMedia.notifyReceived(buff);
+            }
+            //Received data is copied only if someone is listening it.
+            if (mParentMedia.hasMediaListeners()) {
+                byte[] data = new byte[len];
+                System.arraycopy(buffer, offset, data, 0, len);
+                if (mParentMedia.getTrace() == TraceLevel.VERBOSE) {
+                    mParentMedia.notifyTrace(new gurux.common.TraceEventArgs(TraceTypes.RECEIVED, data));
+                }
+                ReceiveEventArgs arg = new ReceiveEventArgs(data, mParentMedia.getPort().getPort());
+                mParentMedia.notifyReceived(arg);
             }
-            ReceiveEventArgs arg = new ReceiveEventArgs(data, mParentMedia.getPort().getPort());
-            mParentMedia.notifyReceived(arg);
         }
     }
 
-    @Override
-    public final void run() {
-        byte[] buff = new byte[mInput.getMaxPacketSize()];
-        while (!Thread.currentThread().isInterrupted()) {
-            try {
-                int len = mConnection.bulkTransfer(mInput, buff, buff.length, WAIT_TIME);
-                //Len is -1 if timeout for some chipsets.
-                //http://b.android.com/28023
-                // If mConnection is closed.
-                if (len == 0 && Thread.currentThread().isInterrupted()) {
+    /**
+     * Append received data to the aggregation buffer.
+     *
+     * @param data Received data.
+     * @param len  Amount of received bytes.
+     */
+    private void aggregate(final byte[] data, final int len) {
+        if (mAggregateSize + len > mAggregate.length) {
+            flush();
+        }
+        long now = System.nanoTime();
+        if (mAggregateSize == 0) {
+            mAggregateStart = now;
+        }
+        mAggregateLast = now;
+        System.arraycopy(data, 0, mAggregate, mAggregateSize, len);
+        mAggregateSize += len;
+        if (mAggregateSize >= mAggregateMaxSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Deliver collected data.
+     */
+    private void flush() {
+        if (mAggregateSize != 0) {
+            int len = mAggregateSize;
+            mAggregateSize = 0;
+            handleReceivedData(mAggregate, 0, len);
+        }
+    }
+
+    /**
+     * Decode received data to frames. Received bytes are collected to the aggregation
+     * buffer and only complete frames are delivered.
+     *
+     * @param data Received data.
+     * @param len  Amount of received bytes.
+     */
+    private void decode(final byte[] data, final int len) {
+        int pos = 0;
+        while (pos != len) {
+            int count = Math.min(len - pos, mAggregate.length - mAggregateSize);
+            System.arraycopy(data, pos, mAggregate, mAggregateSize, count);
+            mAggregateSize += count;
+            pos += count;
+            int start = 0;
+            while (start != mAggregateSize) {
+                int ret = mDecoder.getFrameLength(mAggregate, start, mAggregateSize - start);
+                if (ret < 0) {
+                    //Skip invalid data.
+                    start += Math.min(-ret, mAggregateSize - start);
+                } else if (ret == 0 || ret > mAggregateSize - start) {
                     break;
+                } else {
+                    handleReceivedData(mAggregate, start, ret);
+                    //Shared bytes are decoded again as the start of the next frame.
+                    start += ret - mDecoder.getSharedLength();
                 }
-                if (mChipset != null && len > 0) {
-                    len = mChipset.removeStatus(buff, len, buff.length);
-                }
-                if (len > 0) {
-                    if (mParentMedia.getReceiveDelay() > 0) {
-                        long start = System.currentTimeMillis();
-                        int elapsedTime = 0;
-                        ByteArrayOutputStream tmp = new ByteArrayOutputStream();
-                        tmp.write(buff, 0, len);
-                        while ((len = mConnection.bulkTransfer(mInput, buff, 0, buff.length, mParentMedia.getReceiveDelay() - elapsedTime)) > 0) {
-                            if (mChipset != null) {
-                                len = mChipset.removeStatus(buff, len, buff.length);
-                            }
-                            tmp.write(buff, 0, len);
-                            elapsedTime = (int) (System.currentTimeMillis() - start);
-                            if (mParentMedia.getReceiveDelay() - elapsedTime < 1) {
-                                break;
-                            }
+            }
+            if (start == 0 && mAggregateSize == mAggregate.length) {
+                //Buffer is full and frame is not found. Skip one byte and find next frame.
+                mParentMedia.notifyError(new RuntimeException("Frame is too long."));
+                start = 1;
+            }
+            if (start != 0) {
+                System.arraycopy(mAggregate, start, mAggregate, 0, mAggregateSize - start);
+                mAggregateSize -= start;
+            }
+        }
+    }
+
+    /**
+     * Get time until collected data is delivered.
+     *
+     * @return Time in milliseconds. Zero or less if data must be delivered.
+     */
+    private int getAggregateTimeout() {
+        long now = System.nanoTime();
+        //Data is delivered when receive delay is elapsed after the first byte.
+        long timeout = mParentMedia.getReceiveDelay() - (now - mAggregateStart) / 1000000;
+        int idle = mParentMedia.getReceiveIdleTimeout();
+        if (idle > 0) {
+            //Or when new data is not received within idle timeout.
+            timeout = Math.min(timeout, idle - (now - mAggregateLast) / 1000000);
+        }
+        return (int) Math.min(timeout, WAIT_TIME);
+    }
+
+    /**
+     * Is close requested.
+     */
+    private volatile boolean mClosing;
+
+    /**
+     * Stop receiving. Errors are not reported after close is requested.
+     */
+    final void close() {
+        mClosing = true;
+        interrupt();
+    }
+
+    /**
+     * @return True, if thread is closing and errors are not reported.
+     */
+    private boolean isClosing() {
+        return mClosing || Thread.currentThread().isInterrupted();
+    }
+
+    @Override
+    public final void run() {
+        try {
+            mReader.start();
+            while (!isClosing()) {
+                try {
+                    IGXFrameDecoder decoder = mParentMedia.getFrameDecoder();
+                    if (decoder != mDecoder) {
+                        if (mDecoder == null) {
+                            flush();
+                        } else {
+                            //Partial frame is dropped when decoder is changed.
+                            mAggregateSize = 0;
                         }
-                        buff = tmp.toByteArray();
-                        len = buff.length;
+                        mDecoder = decoder;
+                    }
+                    int timeout = WAIT_TIME;
+                    if (mDecoder == null && mAggregateSize != 0) {
+                        timeout = getAggregateTimeout();
+                        if (timeout < 1) {
+                            flush();
+                            continue;
+                        }
+                    }
+                    int len = mReader.read(timeout);
+                    byte[] data = mReader.getData();
+                    //Len is -1 if timeout for some chipsets.
+                    //http://b.android.com/28023
+                    // If mConnection is closed.
+                    if (len == 0 && isClosing()) {
+                        break;
+                    }
+                    if (mChipset != null && len > 0) {
+                        len = mChipset.removeStatus(data, len, mInput.getMaxPacketSize());
+                    }
+                    if (len > 0) {
+                        mBytesReceived += len;
+                        if (mDecoder != null) {
+                            decode(data, len);
+                        } else if (mParentMedia.getReceiveDelay() > 0) {
+                            aggregate(data, len);
+                        } else {
+                            flush();
+                            handleReceivedData(data, 0, len);
+                        }
+                    }
+                } catch (Exception ex) {
+                    if (!isClosing()) {
+                        mParentMedia.notifyError(new RuntimeException(ex.getMessage()));
                     }
-                    handleReceivedData(buff, len);
-                }
-            } catch (Exception ex) {
-                if (!Thread.currentThread().isInterrupted()) {
-                    mParentMedia.notifyError(new RuntimeException(ex.getMessage()));
                 }
             }
+        } catch (Exception ex) {
+            //Connection is closed when port is closed.
+            if (!isClosing()) {
+                mParentMedia.notifyError(new RuntimeException(ex.getMessage()));
+            }
+        } finally {
+            mReader.close();
         }
     }
-}
\ No newline at end of file
+}
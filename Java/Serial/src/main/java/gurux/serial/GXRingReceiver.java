@@ -0,0 +1,325 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import gurux.common.ReceiveParameters;
+
+/**
+ * Lock-free synchronous receiver. Receive thread writes received data to the
+ * single-producer/single-consumer ring buffer and the waiting thread is woken up with
+ * park/unpark. Only one thread can wait received data at the time.
+ *
+ * @author Gurux Ltd.
+ */
+final class GXRingReceiver {
+    /**
+     * Ring buffer.
+     */
+    private final byte[] mBuffer;
+
+    /**
+     * Mask that is used to get index in the ring buffer.
+     */
+    private final int mMask;
+
+    /**
+     * Amount of written bytes. Updated by the receive thread.
+     */
+    private volatile long mWritten;
+
+    /**
+     * Amount of read bytes. Updated by the waiting thread.
+     */
+    private volatile long mRead;
+
+    /**
+     * Thread that is waiting received data.
+     */
+    private volatile Thread mWaiter;
+
+    /**
+     * Is receiver closed.
+     */
+    private volatile boolean mClosed;
+
+    /**
+     * Position where end of packet is searched next time.
+     */
+    private long mScanned;
+
+    /**
+     * Data before this position is removed. Other threads request it and it's
+     * applied by the waiting thread.
+     */
+    private final AtomicLong mDiscard = new AtomicLong();
+
+    /**
+     * Requests to search end of packet again from the beginning.
+     */
+    private final AtomicInteger mResetRequests = new AtomicInteger();
+
+    /**
+     * Last applied reset request.
+     */
+    private int mResets;
+
+    /**
+     * Last used end of packet.
+     */
+    private Object mEop;
+
+    /**
+     * Compiled end of packet.
+     */
+    private GXEopMatcher mMatcher;
+
+    /**
+     * Constructor.
+     *
+     * @param size Ring buffer size. Size is rounded up to the power of two.
+     */
+    GXRingReceiver(final int size) {
+        int capacity = Integer.highestOneBit(Math.max(size, 16) - 1) << 1;
+        mBuffer = new byte[capacity];
+        mMask = capacity - 1;
+    }
+
+    /**
+     * @return Ring buffer size.
+     */
+    int getCapacity() {
+        return mBuffer.length;
+    }
+
+    /**
+     * Write received data to the ring buffer. This is called from the receive thread.
+     *
+     * @param data   Received data.
+     * @param offset Data offset.
+     * @param count  Amount of received bytes.
+     * @return Amount of written bytes. Less than count if ring buffer is full.
+     */
+    int write(final byte[] data, final int offset, final int count) {
+        long written = mWritten;
+        //Removed data can be overwritten before the waiting thread has applied the reset.
+        long read = Math.max(mRead, mDiscard.get());
+        int len = Math.min(count, mBuffer.length - (int) (written - read));
+        int pos = (int) (written & mMask);
+        int first = Math.min(len, mBuffer.length - pos);
+        System.arraycopy(data, offset, mBuffer, pos, first);
+        System.arraycopy(data, offset + first, mBuffer, 0, len - first);
+        mWritten = written + len;
+        Thread waiter = mWaiter;
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+        return len;
+    }
+
+    /**
+     * Remove all data that is received so far. This can be called from any thread.
+     */
+    void reset() {
+        long written = mWritten;
+        long value;
+        do {
+            value = mDiscard.get();
+        } while (value < written && !mDiscard.compareAndSet(value, written));
+        resetPosition();
+        Thread waiter = mWaiter;
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    /**
+     * End of packet is searched again from the beginning of the received data.
+     * This can be called from any thread.
+     */
+    void resetPosition() {
+        mResetRequests.incrementAndGet();
+    }
+
+    /**
+     * Apply reset requests. This is called from the waiting thread.
+     */
+    private void applyReset() {
+        long discard = mDiscard.get();
+        int request = mResetRequests.get();
+        if (discard > mRead) {
+            mRead = discard;
+            mResets = request;
+            restart();
+        } else if (request != mResets) {
+            mResets = request;
+            restart();
+        }
+    }
+
+    /**
+     * Search end of packet again from the read position.
+     */
+    private void restart() {
+        mScanned = mRead;
+        if (mMatcher != null) {
+            mMatcher.reset();
+        }
+    }
+
+    /**
+     * Close receiver and wake up waiting thread.
+     */
+    void close() {
+        mClosed = true;
+        Thread waiter = mWaiter;
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    /**
+     * Wait until reply is received.
+     *
+     * @param args Receive parameters. Reply type must be byte array.
+     * @return True, if reply is received.
+     */
+    @SuppressWarnings("unchecked")
+    <T> boolean receive(final ReceiveParameters<T> args) {
+        if (args.getReplyType() != byte[].class) {
+            throw new IllegalArgumentException("Invalid reply type.");
+        }
+        Object eop = args.getEop();
+        int count = args.getCount();
+        if (eop == null && count == 0 && !args.getAllData()) {
+            throw new IllegalArgumentException("Either Count or Eop must be set.");
+        }
+        applyReset();
+        if (eop != null && eop != mEop) {
+            mMatcher = GXEopMatcher.compile(eop);
+            mEop = eop;
+            mScanned = mRead;
+        }
+        final boolean search = eop != null && mMatcher != null;
+        long deadline = 0;
+        if (args.getWaitTime() > 0) {
+            deadline = System.nanoTime() + args.getWaitTime() * 1000000L;
+        }
+        long read;
+        long end;
+        byte[] reply;
+        while (true) {
+            //Reset might be requested while waiting.
+            applyReset();
+            read = mRead;
+            long written = mWritten;
+            if (search) {
+                end = scan(read + count, written);
+            } else if (written - read >= Math.max(count, 1)) {
+                end = read + Math.max(count, 1);
+            } else {
+                end = -1;
+            }
+            if (end != -1) {
+                if (args.getAllData()) {
+                    end = written;
+                }
+                reply = new byte[(int) (end - read)];
+                int pos = (int) (read & mMask);
+                int first = Math.min(reply.length, mBuffer.length - pos);
+                System.arraycopy(mBuffer, pos, reply, 0, first);
+                System.arraycopy(mBuffer, 0, reply, first, reply.length - first);
+                //Data is removed and it might be overwritten while it was copied.
+                if (mDiscard.get() <= read) {
+                    break;
+                }
+                continue;
+            }
+            long timeout = 0;
+            if (deadline != 0) {
+                timeout = deadline - System.nanoTime();
+                if (timeout <= 0) {
+                    return false;
+                }
+            }
+            if (mClosed || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            mWaiter = Thread.currentThread();
+            //Data might be received or reset requested before waiter was set.
+            if (mWritten == written && mDiscard.get() <= read) {
+                if (deadline == 0) {
+                    LockSupport.park(this);
+                } else {
+                    LockSupport.parkNanos(this, timeout);
+                }
+            }
+            mWaiter = null;
+        }
+        if (!args.getPeek()) {
+            mRead = end;
+        }
+        restart();
+        args.setReply((T) reply);
+        return true;
+    }
+
+    /**
+     * Search end of packet from the data that is not searched yet.
+     *
+     * @param min     End of packet must end at this position or after it.
+     * @param written Amount of written bytes.
+     * @return Position after the end of packet or -1 if not found.
+     */
+    private long scan(final long min, final long written) {
+        while (mScanned != written) {
+            int pos = (int) (mScanned & mMask);
+            int count = (int) Math.min(written - mScanned, mBuffer.length - pos);
+            int index = mMatcher.match(mBuffer, pos, count);
+            if (index == -1) {
+                mScanned += count;
+            } else {
+                mScanned += index - pos + 1;
+                if (mScanned >= min) {
+                    return mScanned;
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -34,12 +34,9 @@
 
 package gurux.serial;
 
-import android.annotation.SuppressLint;
 import android.app.Activity;
-import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.pm.PackageInfo;
 import android.hardware.usb.UsbConstants;
 import android.hardware.usb.UsbDevice;
@@ -47,7 +44,6 @@ import android.hardware.usb.UsbDeviceConnection;
 import android.hardware.usb.UsbEndpoint;
 import android.hardware.usb.UsbInterface;
 import android.hardware.usb.UsbManager;
-import android.os.Build;
 import android.util.Log;
 import android.util.Xml;
 
@@ -58,21 +54,26 @@ import androidx.lifecycle.ViewModelStoreOwner;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.AbstractMap;
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import gurux.common.GXCommon;
-import gurux.common.GXSync;
 import gurux.common.GXSynchronousMediaBase;
 import gurux.common.IGXMedia2;
 import gurux.common.IGXMediaListener;
@@ -89,6 +90,9 @@ import gurux.io.Parity;
 import gurux.io.StopBits;
 import gurux.serial.enums.AvailableMediaSettings;
 import gurux.serial.enums.Chipset;
+import gurux.serial.enums.DeliveryMode;
+import gurux.serial.enums.ModemLine;
+import gurux.serial.enums.OverflowPolicy;
 import gurux.serial.properties.PropertiesFragment;
 import gurux.serial.properties.PropertiesViewModel;
 
@@ -99,16 +103,52 @@ import gurux.serial.properties.PropertiesViewModel;
 public class GXSerial implements IGXMedia2, AutoCloseable {
     private int receiveDelay;
 
+    /**
+     * Collected data is delivered if new data is not received within this time.
+     */
+    private int mReceiveIdleTimeout;
+
+    /**
+     * Default max size of collected data.
+     */
+    static final int DEFAULT_RECEIVE_MAX_SIZE = 8192;
+
+    /**
+     * Collected data is delivered when it reaches this size.
+     */
+    private int mReceiveMaxSize = DEFAULT_RECEIVE_MAX_SIZE;
+
     private int asyncWaitTime;
+
     /**
-     * List of available serial ports.
+     * Available serial ports.
+     *
+     * @deprecated Ports are kept in the process-wide port registry and this is only a
+     * read-only view of it. Use {@link #getPorts()} instead. This field will be removed.
      */
-    protected static List<GXPort> mPorts = new ArrayList<>();
+    @Deprecated
+    protected static List<GXPort> mPorts = new AbstractList<GXPort>() {
+        @Override
+        public GXPort get(final int index) {
+            return GXUsbHub.getActivePorts()[index];
+        }
+
+        @Override
+        public int size() {
+            return GXUsbHub.getActivePorts().length;
+        }
+    };
+
     /**
      * Amount of default data bits.
      */
     static final int DEFAULT_DATA_BITS = 8;
 
+    /**
+     * Default baud rate.
+     */
+    static final int DEFAULT_BAUD_RATE = 9600;
+
     /**
      * User chipset.
      */
@@ -118,7 +158,7 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
     /**
      * Serial port baud rate.
      */
-    private BaudRate mBaudRate = BaudRate.BAUD_RATE_9600;
+    private int mBaudRate = DEFAULT_BAUD_RATE;
     /**
      * Used data bits.
      */
@@ -141,6 +181,91 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
      */
     private int mReadTimeout = 5000;
 
+    /**
+     * Amount of USB requests that are kept queued to the bulk IN endpoint.
+     */
+    private int mReceiveRequestCount = 0;
+
+    /**
+     * Size of one receive transfer in bytes.
+     */
+    private int mReceiveTransferSize = 0;
+
+    /**
+     * Size of one write transfer in bytes.
+     */
+    private int mWriteTransferSize = 0;
+
+    /**
+     * Is zero-length packet sent when data size is multiple of max packet size.
+     */
+    private boolean mWriteZeroLengthPacket;
+
+    /**
+     * Writes are handled one at the time.
+     */
+    private final Object mWriteLock = new Object();
+
+    /**
+     * Is pending write aborted because serial port is closed.
+     */
+    private volatile boolean mWriteAborted;
+
+    /**
+     * Time in milliseconds how long small asynchronous writes are collected.
+     */
+    private int mWriteCoalesceTime = 0;
+
+    /**
+     * Write thread for asynchronous sends. Created when it's used first time.
+     */
+    private GXWriteThread mWriter;
+
+    /**
+     * Buffer where direct send buffers are copied.
+     */
+    private byte[] mSendBuffer = new byte[0];
+
+    /**
+     * Offset of the data that is sent from the buffer. Used under the write lock.
+     */
+    private final int[] mSendOffset = new int[1];
+
+    /**
+     * Size of the lock-free receive ring buffer. Zero if it's not used.
+     */
+    private int mReceiveRingSize = 0;
+
+    /**
+     * Lock-free synchronous receiver. Null if it's not used.
+     */
+    private volatile GXRingReceiver mRing;
+
+    /**
+     * Transactions are handled one at the time.
+     */
+    private final Object mTransactionLock = new Object();
+
+    /**
+     * Executor where asynchronous transactions are handled. Created when it's used first time.
+     */
+    private ExecutorService mTransactionExecutor;
+
+    /**
+     * Round-trip time of the last transaction in nanoseconds.
+     */
+    private volatile long mRoundTripTime;
+
+    /**
+     * Default latency timer in milliseconds.
+     */
+    static final int DEFAULT_LATENCY_TIMER = 16;
+
+    /**
+     * Latency timer in milliseconds.
+     */
+    int mLatencyTimer = DEFAULT_LATENCY_TIMER;
+
     /**
      * Receiver thread.
      */
@@ -158,6 +283,11 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
 
     UsbEndpoint mOut;
 
+    /**
+     * Opened USB device.
+     */
+    UsbDevice mDevice;
+
     /*
      * Name of serial port.
      */
@@ -171,9 +301,10 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
      */
     private long mBytesSend = 0;
     /*
-     * Synchronous counter.
+     * Synchronous counter. Counter is increased when synchronous mode is started
+     * and decreased when it's closed.
      */
-    private int mSynchronous = 0;
+    private final AtomicInteger mSynchronous = new AtomicInteger();
     /*
      * Trace level.
      */
@@ -182,6 +313,14 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
      * End of packet.
      */
     private Object mEop;
+    /*
+     * Compiled end of packet.
+     */
+    private volatile GXEopMatcher mEopMatcher;
+    /*
+     * Frame decoder.
+     */
+    private volatile IGXFrameDecoder mFrameDecoder;
     /*
      * Configurable settings.
      */
@@ -194,38 +333,64 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
     /**
      * Media listeners.
      */
-    private final List<IGXMediaListener> mMediaListeners = new ArrayList<>();
+    private final List<IGXMediaListener> mMediaListeners = new CopyOnWriteArrayList<>();
 
     /**
      * Serial port listeners.
      */
-    private final List<IGXSerialListener> mPortListeners = new ArrayList<>();
+    private final List<IGXSerialListener> mPortListeners = new CopyOnWriteArrayList<>();
 
-    private GXUsbReceiver mUsbReceiver;
+    /**
+     * Receive buffer listeners.
+     */
+    private final List<IGXReceiveBufferListener> mBufferListeners = new CopyOnWriteArrayList<>();
 
-    private final UsbManager mUsbManager;
+    /**
+     * Snapshot of the receive buffer listeners. Array is never modified.
+     */
+    private volatile IGXReceiveBufferListener[] mBufferListenerArray = new IGXReceiveBufferListener[0];
+
+    /**
+     * Data listeners.
+     */
+    private final List<IGXSerialDataListener> mDataListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Executor where data listeners are called. If null, listeners are called on the receive thread.
+     */
+    private Executor mDataExecutor;
+
+    /**
+     * How events are delivered to the listeners.
+     */
+    private DeliveryMode mDeliveryMode = DeliveryMode.IMMEDIATE;
+
+    /**
+     * Dispatcher that delivers events. If null, events are posted to the UI thread one by one.
+     */
+    private volatile GXDispatcher mDispatcher;
+
+    /**
+     * Dispatcher that delivers events using the executor. Null if executor is not used.
+     */
+    private GXExecutorDispatcher mExecutorDispatcher;
+
+    /**
+     * Process-wide USB hub.
+     */
+    private final GXUsbHub mHub;
 
     /**
      * Constructor.
      *
      * @param context Context.
      */
-    @SuppressLint("UnspecifiedRegisterReceiverFlag")
     public GXSerial(Context context) {
         if (context == null) {
             throw new IllegalArgumentException("context");
         }
         mContext = context;
-        mUsbReceiver = new GXUsbReceiver(this);
-        IntentFilter filter = new IntentFilter(GXUsbReceiver.ACTION_USB_PERMISSION);
-        filter.addAction(UsbManager.ACTION_USB_DEVICE_ATTACHED);
-        filter.addAction(UsbManager.ACTION_USB_DEVICE_DETACHED);
-        mUsbManager = (UsbManager) mContext.getSystemService(Context.USB_SERVICE);
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-            mContext.registerReceiver(mUsbReceiver, filter, Context.RECEIVER_EXPORTED);
-        } else {
-            mContext.registerReceiver(mUsbReceiver, filter);
-        }
+        mHub = GXUsbHub.attach(context, this);
         mSyncBase = new GXSynchronousMediaBase(200);
         setConfigurableSettings(AvailableMediaSettings.ALL.getValue());
     }
@@ -302,16 +467,11 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
      * @return Chipset settings.
      */
     private static GXChipset getChipSet(final String stringManufacturer, int vendor, int productId) {
-        if (GXCP21xx.isUsing(stringManufacturer, vendor, productId)) {
-            return new GXCP21xx();
-        } else if (GXProfilic.isUsing(stringManufacturer, vendor, productId)) {
-            return new GXProfilic();
-        } else if (GXFtdi.isUsing(stringManufacturer, vendor, productId)) {
-            return new GXFtdi();
-        } else if (GXCh34x.isUsing(stringManufacturer, vendor, productId)) {
-            return new GXCh34x();
+        Chipset chipset = GXChipsetRegistry.find(stringManufacturer, vendor, productId);
+        if (chipset == null) {
+            return null;
         }
-        return null;
+        return getChipSet(chipset);
     }
 
     private static GXChipset getChipSet(Chipset chipset) {
@@ -329,6 +489,9 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
             case CH34X:
                 value = new GXCh34x();
                 break;
+            case CDC_ACM:
+                value = new GXCdcAcm();
+                break;
             default:
                 throw new RuntimeException("Invalid chipset.");
         }
@@ -345,36 +508,48 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
     }
 
     /**
-     * Remove USB serial port.
+     * Notify that serial port is added.
      *
-     * @param device USB device to remove.
+     * @param port Added serial port.
      */
-    void removePort(final UsbDevice device) {
-        synchronized (GXPort.class) {
-            int pos = 0;
-            for (GXPort port : mPorts) {
-                if (port.getPort().equals(device.getDeviceName())) {
-                    mPorts.remove(port);
-                    for (IGXSerialListener it : mPortListeners) {
-                        it.onPortRemoved(port, pos);
-                    }
-                    break;
+    final void notifyPortAdded(final GXPort port) {
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                for (IGXSerialListener it : mPortListeners) {
+                    it.onPortAdded(port);
                 }
-                ++pos;
             }
-        }
+        });
+    }
+
+    /**
+     * Notify that serial port is removed.
+     *
+     * @param port  Removed serial port.
+     * @param index Index where port is removed.
+     */
+    final void notifyPortRemoved(final GXPort port, final int index) {
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                for (IGXSerialListener it : mPortListeners) {
+                    it.onPortRemoved(port, index);
+                }
+            }
+        });
     }
 
-    void addPort(final UsbDevice device, final boolean notify) {
+    /**
+     * Create serial port for the USB device. Descriptors are read only if device is not cached.
+     *
+     * @param hub    USB hub.
+     * @param device USB device.
+     * @return Serial port or null if device is not a serial port.
+     */
+    static GXPort createPort(final GXUsbHub hub, final UsbDevice device) {
         byte[] buffer = new byte[255];
-        PendingIntent permissionIntent = PendingIntent.getBroadcast(mContext, 0,
-                new Intent(GXUsbReceiver.ACTION_USB_PERMISSION),
-                PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
         UsbEndpoint in = null, out = null;
-        if (!mUsbManager.hasPermission(device)) {
-            mUsbManager.requestPermission(device, permissionIntent);
-            return;
-        }
         for (int i = 0; i != device.getInterfaceCount(); ++i) {
             UsbInterface usbIf = device.getInterface(i);
             for (int pos = 0; pos != usbIf.getEndpointCount(); ++pos) {
@@ -391,18 +566,26 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
                 }
             }
             if (out != null && in != null) {
+                GXPort port = hub.getRegistry().getCached(device);
+                if (port != null) {
+                    return port;
+                }
                 try {
-                    GXPort port = new GXPort();
+                    port = new GXPort();
                     port.setPort(device.getDeviceName());
                     port.setVendorId(device.getVendorId());
                     port.setProductId(device.getProductId());
                     port.setVersion(device.getVersion());
-                    Map.Entry<String, String> info = find(mContext, device.getVendorId(), device.getProductId());
+                    Map.Entry<String, String> info = GXUsbIds.find(hub.getContext(), device.getVendorId(), device.getProductId());
                     if (info != null) {
                         port.setVendor(info.getKey());
                         port.setProduct(info.getValue());
                     }
-                    UsbDeviceConnection connection = mUsbManager.openDevice(device);
+                    UsbDeviceConnection connection = hub.getManager().openDevice(device);
+                    if (connection == null) {
+                        Log.i("gurux.serial", "Failed to open USB device " + device.getDeviceName());
+                        return null;
+                    }
                     try {
                         port.setSerial(connection.getSerial());
                         byte[] rawDescriptors = connection.getRawDescriptors();
@@ -413,40 +596,47 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
                         GXChipset chipset = getChipSet(man, device.getVendorId(), device.getProductId());
                         if (chipset != null) {
                             port.setChipset(chipset.getChipset());
+                        } else if (GXCdcAcm.isUsing(device)) {
+                            port.setChipset(Chipset.CDC_ACM);
                         }
                     } finally {
                         connection.close();
                     }
-                    synchronized (GXPort.class) {
-                        mPorts.add(port);
-                    }
-                    if (notify) {
-                        for (IGXSerialListener it : mPortListeners) {
-                            it.onPortAdded(port);
-                        }
-                    }
+                    hub.getRegistry().putCached(device, port);
+                    return port;
                 } catch (IOException e) {
                     Log.i("gurux.serial", Objects.requireNonNull(e.getMessage()));
                 }
+                //Only one serial port is added for each USB device.
+                break;
             }
         }
+        return null;
     }
 
     /**
      * Gets an array of serial port names for the current computer.
+     * USB devices are enumerated only once. After that ports are updated
+     * when devices are attached or detached.
+     * <p>
+     * Device descriptors are read in the caller thread. Use getPortsAsync in the main thread.
      *
      * @return Collection of available serial ports.
+     * @see #getPortsAsync()
      */
     public GXPort[] getPorts() {
-        synchronized (GXPort.class) {
-            if (mPorts.isEmpty()) {
-                Map<String, UsbDevice> devices = mUsbManager.getDeviceList();
-                for (Map.Entry<String, UsbDevice> it : devices.entrySet()) {
-                    addPort(it.getValue(), false);
-                }
-            }
-        }
-        return mPorts.toArray(new GXPort[0]);
+        return mHub.getPorts();
+    }
+
+    /**
+     * Enumerate serial ports in the background. Device descriptors are read in
+     * parallel and each port is reported with onPortAdded as soon as it's ready.
+     * If ports are already enumerated, completed future is returned.
+     *
+     * @return Collection of available serial ports when all devices are read.
+     */
+    public final CompletableFuture<GXPort[]> getPortsAsync() {
+        return mHub.getPortsAsync();
     }
 
     /**
@@ -462,7 +652,8 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
                 BaudRate.BAUD_RATE_19200.getValue(), BaudRate.BAUD_RATE_38400.getValue(),
                 BaudRate.BAUD_RATE_57600.getValue(),
                 BaudRate.BAUD_RATE_78600.getValue(),
-                BaudRate.BAUD_RATE_115200.getValue()};
+                BaudRate.BAUD_RATE_115200.getValue(),
+                230400, 460800, 921600};
     }
 
     @Override
@@ -490,20 +681,30 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
      * @param info Name of changed property.
      */
     private void notifyPropertyChanged(final String info) {
-        if (mActivity != null) {
-            //New data is coming from worker thread.
-            mActivity.runOnUiThread(new Runnable() {
-                @Override
-                public void run() {
-                    for (IGXMediaListener listener : mMediaListeners) {
-                        listener.onPropertyChanged(this, new PropertyChangedEventArgs(info));
-                    }
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                for (IGXMediaListener listener : mMediaListeners) {
+                    listener.onPropertyChanged(GXSerial.this, new PropertyChangedEventArgs(info));
                 }
-            });
-        } else {
-            for (IGXMediaListener listener : mMediaListeners) {
-                listener.onPropertyChanged(this, new PropertyChangedEventArgs(info));
             }
+        });
+    }
+
+    /**
+     * Deliver event to the listeners using the selected delivery mode.
+     *
+     * @param task Task that calls the listeners.
+     */
+    private void dispatch(final Runnable task) {
+        GXDispatcher dispatcher = mDispatcher;
+        if (dispatcher != null) {
+            dispatcher.post(task);
+        } else if (mActivity != null) {
+            //New data is coming from worker thread.
+            mActivity.runOnUiThread(task);
+        } else {
+            task.run();
         }
     }
 
@@ -513,27 +714,17 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
      * @param ex Occurred error.
      */
     final void notifyError(final RuntimeException ex) {
-        if (mActivity != null) {
-            //New data is coming from worker thread.
-            mActivity.runOnUiThread(new Runnable() {
-                @Override
-                public void run() {
-                    for (IGXMediaListener listener : mMediaListeners) {
-                        listener.onError(this, ex);
-                        if (mTrace.ordinal() >= TraceLevel.ERROR.ordinal()) {
-                            listener.onTrace(this, new TraceEventArgs(TraceTypes.ERROR, ex));
-                        }
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                for (IGXMediaListener listener : mMediaListeners) {
+                    listener.onError(GXSerial.this, ex);
+                    if (mTrace.ordinal() >= TraceLevel.ERROR.ordinal()) {
+                        listener.onTrace(GXSerial.this, new TraceEventArgs(TraceTypes.ERROR, ex));
                     }
                 }
-            });
-        } else {
-            for (IGXMediaListener listener : mMediaListeners) {
-                listener.onError(this, ex);
-                if (mTrace.ordinal() >= TraceLevel.ERROR.ordinal()) {
-                    listener.onTrace(this, new TraceEventArgs(TraceTypes.ERROR, ex));
-                }
             }
-        }
+        });
     }
 
     /**
@@ -542,44 +733,153 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
      * @param arg Received event argument.
      */
     final void notifyReceived(final ReceiveEventArgs arg) {
-        if (mActivity != null) {
-            //New data is coming from worker thread.
-            mActivity.runOnUiThread(new Runnable() {
+        dispatch(new ReceivedEvent(arg));
+    }
+
+    /**
+     * Received data event. Received data can be merged to the queued event.
+     */
+    private final class ReceivedEvent implements GXDispatcher.Event {
+        /**
+         * Received event argument.
+         */
+        private ReceiveEventArgs mArgs;
+
+        /**
+         * Constructor.
+         *
+         * @param args Received event argument.
+         */
+        ReceivedEvent(final ReceiveEventArgs args) {
+            mArgs = args;
+        }
+
+        @Override
+        public void run() {
+            for (IGXMediaListener listener : mMediaListeners) {
+                listener.onReceived(GXSerial.this, mArgs);
+            }
+        }
+
+        @Override
+        public boolean merge(final Runnable next) {
+            if (!(next instanceof ReceivedEvent)) {
+                return false;
+            }
+            byte[] data = (byte[]) mArgs.getData();
+            byte[] tmp = (byte[]) ((ReceivedEvent) next).mArgs.getData();
+            byte[] merged = new byte[data.length + tmp.length];
+            System.arraycopy(data, 0, merged, 0, data.length);
+            System.arraycopy(tmp, 0, merged, data.length, tmp.length);
+            mArgs = new ReceiveEventArgs(merged, mArgs.getSenderInfo());
+            return true;
+        }
+
+        @Override
+        public void dropped() {
+        }
+    }
+
+    /**
+     * Notify receive buffer listeners from new data received.
+     * Each listener gets own reference to the buffer and caller's reference is released.
+     * Listeners are taken once, so the same listeners are retained and called.
+     *
+     * @param buffer Received data.
+     */
+    final void notifyReceived(final GXReceiveBuffer buffer) {
+        final IGXReceiveBufferListener[] listeners = mBufferListenerArray;
+        for (int pos = 0; pos != listeners.length; ++pos) {
+            buffer.retain();
+        }
+        if (listeners.length == 0) {
+            buffer.release();
+        } else {
+            //Event is owned by the buffer, so nothing is allocated for each chunk.
+            GXDispatcher.Event event = buffer.prepare(this, listeners);
+            buffer.release();
+            dispatch(event);
+        }
+    }
+
+    /**
+     * Notify data listeners from new data received.
+     *
+     * @param buffer Received data.
+     * @param offset Offset of the received data.
+     * @param length Amount of received bytes.
+     * @param pool   Pool where buffer is taken if data is delivered using executor.
+     */
+    final void notifyData(final byte[] buffer, final int offset, final int length,
+                          final GXReceiveBufferPool pool) {
+        if (mDataExecutor == null) {
+            for (IGXSerialDataListener listener : mDataListeners) {
+                listener.onReceived(this, buffer, offset, length);
+            }
+        } else {
+            //Receive buffer is reused so data is copied to the pooled buffer.
+            final GXReceiveBuffer buff = pool.acquire(length);
+            System.arraycopy(buffer, offset, buff.getData(), 0, length);
+            mDataExecutor.execute(new Runnable() {
                 @Override
                 public void run() {
-                    for (IGXMediaListener listener : mMediaListeners) {
-                        listener.onReceived(this, arg);
+                    try {
+                        for (IGXSerialDataListener listener : mDataListeners) {
+                            listener.onReceived(GXSerial.this, buff.getData(), 0, buff.getSize());
+                        }
+                    } finally {
+                        buff.release();
                     }
                 }
             });
-        } else {
-            for (IGXMediaListener listener : mMediaListeners) {
-                listener.onReceived(this, arg);
-            }
         }
     }
 
+    /**
+     * @return Are there data listeners.
+     */
+    final boolean hasDataListeners() {
+        return !mDataListeners.isEmpty();
+    }
+
+    /**
+     * @return Are there media listeners.
+     */
+    final boolean hasMediaListeners() {
+        return !mMediaListeners.isEmpty();
+    }
+
+    /**
+     * @return Are there receive buffer listeners.
+     */
+    final boolean hasReceiveBufferListeners() {
+        return mBufferListenerArray.length != 0;
+    }
+
     /**
      * Notify clients from trace events.
      *
      * @param arg Trace event argument.
      */
     final void notifyTrace(final TraceEventArgs arg) {
-        if (mActivity != null) {
-            //New data is coming from worker thread.
-            mActivity.runOnUiThread(new Runnable() {
-                @Override
-                public void run() {
-                    for (IGXMediaListener listener : mMediaListeners) {
-                        listener.onTrace(this, arg);
-                    }
+        //Trace events can be dropped if listeners can't keep up.
+        dispatch(new GXDispatcher.Event() {
+            @Override
+            public void run() {
+                for (IGXMediaListener listener : mMediaListeners) {
+                    listener.onTrace(GXSerial.this, arg);
                 }
-            });
-        } else {
-            for (IGXMediaListener listener : mMediaListeners) {
-                listener.onTrace(this, arg);
             }
-        }
+
+            @Override
+            public boolean merge(final Runnable next) {
+                return false;
+            }
+
+            @Override
+            public void dropped() {
+            }
+        });
     }
 
     @Override
@@ -598,30 +898,242 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
     }
 
     public final void send(final Object data) throws Exception {
+        byte[] buff = prepareSend(data);
+        write(buff, 0, buff.length);
+    }
+
+    /**
+     * Send data asynchronously. Data is queued to the write thread and caller is not blocked.
+     * Small writes that are queued within the write coalesce time are merged to one transfer.
+     *
+     * @param data Data to send.
+     * @return Future that completes when data is written to the serial port.
+     * @see #setWriteCoalesceTime
+     */
+    public final CompletableFuture<Void> sendAsync(final Object data) {
         if (mOut == null) {
             throw new RuntimeException("Serial port is not open.");
         }
+        //Data is traced and end of packet search is reset when data is written.
+        byte[] buff = GXSynchronousMediaBase.getAsByteArray(data);
+        if (buff == null) {
+            throw new IllegalArgumentException("Data send failed. Invalid data.");
+        }
+        GXWriteThread writer;
+        synchronized (this) {
+            if (mWriter == null) {
+                mWriter = new GXWriteThread(this);
+                mWriter.start();
+            }
+            writer = mWriter;
+        }
+        return writer.add(buff);
+    }
+
+    /**
+     * Send part of the byte array. Data is written without copying it.
+     *
+     * @param data   Data to send.
+     * @param offset Data offset.
+     * @param length Amount of bytes to send.
+     */
+    public final void send(final byte[] data, final int offset, final int length) {
+        if (data == null || offset < 0 || length < 0 || offset + length > data.length) {
+            throw new IllegalArgumentException("Data send failed. Invalid data.");
+        }
+        beginSend();
         if (mTrace == TraceLevel.VERBOSE) {
-            notifyTrace(new TraceEventArgs(TraceTypes.SENT, data));
+            notifyTrace(new TraceEventArgs(TraceTypes.SENT, data, offset, length));
+        }
+        write(data, offset, length);
+    }
+
+    /**
+     * Send remaining bytes of the buffer. Heap buffers are written without copying them.
+     * Buffer position is moved to the limit.
+     *
+     * @param data Data to send.
+     */
+    public final void sendBuffer(final ByteBuffer data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Data send failed. Invalid data.");
+        }
+        if (data.hasArray()) {
+            send(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            data.position(data.limit());
+        } else {
+            sendBuffers(data);
         }
+    }
+
+    /**
+     * Send remaining bytes of the buffers, for example header, payload and CRC.
+     * Each buffer is written as own block under the same write lock, so other writes
+     * can't be mixed between them. Heap buffers are written without copying them and
+     * direct buffers are copied to the reusable send buffer. Buffer positions are moved to the limits.
+     *
+     * @param data Data to send.
+     */
+    public final void sendBuffers(final ByteBuffer... data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Data send failed. Invalid data.");
+        }
+        for (ByteBuffer it : data) {
+            if (it == null) {
+                throw new IllegalArgumentException("Data send failed. Invalid data.");
+            }
+        }
+        beginSend();
+        synchronized (mWriteLock) {
+            for (ByteBuffer it : data) {
+                int count = it.remaining();
+                if (!it.hasArray() && mSendBuffer.length < count) {
+                    mSendBuffer = new byte[count];
+                }
+                byte[] buff = getArray(it, mSendBuffer, mSendOffset);
+                if (mTrace == TraceLevel.VERBOSE) {
+                    notifyTrace(new TraceEventArgs(TraceTypes.SENT, buff, mSendOffset[0], count));
+                }
+                write(buff, mSendOffset[0], count);
+            }
+        }
+    }
+
+    /**
+     * Get array where the remaining bytes of the buffer are. Backing array of the heap buffer
+     * is returned and direct buffer is copied to the send buffer.
+     * Buffer position is moved to the limit.
+     *
+     * @param data   Buffer.
+     * @param send   Send buffer. Size must be at least amount of remaining bytes.
+     * @param offset Offset of the remaining bytes in the returned array.
+     * @return Array where remaining bytes are.
+     */
+    static byte[] getArray(final ByteBuffer data, final byte[] send, final int[] offset) {
+        int count = data.remaining();
+        if (data.hasArray()) {
+            offset[0] = data.arrayOffset() + data.position();
+            data.position(data.limit());
+            return data.array();
+        }
+        data.get(send, 0, count);
+        offset[0] = 0;
+        return send;
+    }
+
+    /**
+     * Check that port is open and reset end of packet search before data is sent.
+     * Asynchronous writes that are already queued are written first.
+     */
+    private void beginSend() {
+        if (mOut == null) {
+            throw new RuntimeException("Serial port is not open.");
+        }
+        GXWriteThread writer;
+        synchronized (this) {
+            writer = mWriter;
+        }
+        if (writer != null) {
+            writer.drain();
+        }
+        resetEndOfPacket();
+    }
+
+    /**
+     * Reset end of packet search.
+     */
+    final void resetEndOfPacket() {
         // Reset last position if end of packet is used.
         mSyncBase.resetLastPosition();
+        GXRingReceiver ring = mRing;
+        if (ring != null) {
+            ring.resetPosition();
+        }
+        GXEopMatcher eop = mEopMatcher;
+        if (eop != null) {
+            eop.reset();
+        }
+    }
+
+    /**
+     * Trace sent data and reset end of packet search.
+     *
+     * @param data Data to send.
+     * @return Data as byte array.
+     */
+    private byte[] prepareSend(final Object data) {
+        beginSend();
+        if (mTrace == TraceLevel.VERBOSE) {
+            notifyTrace(new TraceEventArgs(TraceTypes.SENT, data));
+        }
         byte[] buff = GXSynchronousMediaBase.getAsByteArray(data);
         if (buff == null) {
             throw new IllegalArgumentException("Data send failed. Invalid data.");
         }
-        int ret, pos = 0, dataSize = mOut.getMaxPacketSize();
-        while (pos != buff.length) {
-            if (buff.length - pos < dataSize) {
-                dataSize = buff.length - pos;
+        return buff;
+    }
+
+    /**
+     * @return Size of one write transfer in bytes.
+     */
+    final int getWriteBlockSize() {
+        UsbEndpoint out = mOut;
+        if (out == null) {
+            return mWriteTransferSize;
+        }
+        int packetSize = out.getMaxPacketSize();
+        if (mWriteTransferSize > packetSize) {
+            return (mWriteTransferSize / packetSize) * packetSize;
+        }
+        return packetSize;
+    }
+
+    /**
+     * Write data to the bulk OUT endpoint. Data is written in write transfer size blocks
+     * and writing continues after partial writes until write timeout elapses.
+     *
+     * @param buff   Data to write.
+     * @param offset Data offset.
+     * @param count  Amount of bytes to write.
+     */
+    final void write(final byte[] buff, final int offset, final int count) {
+        synchronized (mWriteLock) {
+            UsbEndpoint out = mOut;
+            if (out == null) {
+                throw new RuntimeException("Serial port is not open.");
             }
-            ret = mConnection.bulkTransfer(mOut, buff, pos, dataSize, mWriteTimeout);
-            if (ret != dataSize) {
-                throw new IllegalArgumentException("Data send failed.");
+            int packetSize = out.getMaxPacketSize();
+            int size = getWriteBlockSize();
+            //Zero write timeout means that there is no timeout.
+            final int writeTimeout = Math.max(mWriteTimeout, 0);
+            long deadline = System.nanoTime() + writeTimeout * 1000000L;
+            int ret, timeout = 0, pos = offset, end = offset + count;
+            while (pos != end) {
+                if (mWriteAborted) {
+                    throw new RuntimeException("Data send failed. Serial port is closed.");
+                }
+                if (writeTimeout != 0) {
+                    timeout = (int) ((deadline - System.nanoTime()) / 1000000);
+                    if (timeout < 1) {
+                        throw new IllegalArgumentException("Data send failed. Write timeout.");
+                    }
+                }
+                ret = mConnection.bulkTransfer(out, buff, pos, Math.min(size, end - pos), timeout);
+                //Zero-byte transfer is handled as a failure so the loop doesn't spin.
+                if (ret <= 0) {
+                    throw new IllegalArgumentException("Data send failed.");
+                }
+                //Device might accept only part of the data.
+                pos += ret;
             }
-            pos += ret;
+            if (mWriteZeroLengthPacket && count != 0 && count % packetSize == 0) {
+                //Zero-length packet ends the transfer when data size is multiple of packet size.
+                if (mConnection.bulkTransfer(out, buff, offset, 0, writeTimeout) < 0) {
+                    throw new IllegalArgumentException("Data send failed.");
+                }
+            }
+            this.mBytesSend += count;
         }
-        this.mBytesSend += buff.length;
     }
 
     /**
@@ -675,57 +1187,10 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
         return null;
     }
 
-    /**
-     * Find vendor and product name.
-     *
-     * @param context Context.
-     * @param vendor  Vendor ID.
-     * @param product Product ID.
-     * @return Vendor and product entry or null.
-     * @throws IOException Usb ports resource is not found.
-     */
-    private static Map.Entry<String, String> find(Context context, int vendor,
-                                                  int product) throws IOException {
-        InputStream is = context.getResources().openRawResource(R.raw.usbs);
-        String vendorName = null, productName = null;
-        BufferedReader r = new BufferedReader(new InputStreamReader(is));
-        String line;
-        while ((line = r.readLine()) != null) {
-            if (line.startsWith("C 00")) {
-                // If all manufacturers are read.
-                break;
-            }
-            if (!line.isEmpty() && !line.startsWith("#")) {
-                if (vendorName == null) {
-                    // Find vendor.
-                    if (!line.startsWith("\t")) {
-                        int v = Integer.parseInt(line.substring(0, 4), 16);
-                        if (v == vendor) {
-                            vendorName = line.substring(5).trim();
-                        }
-                    }
-                } else {
-                    // Find product.
-                    if (!line.startsWith("\t")) {
-                        break;
-                    }
-                    int v = Integer.parseInt(line.substring(1, 5), 16);
-                    if (v == product) {
-                        productName = line.substring(6).trim();
-                        break;
-                    }
-                }
-            }
-        }
-        if (vendorName == null) {
-            return null;
-        }
-        return new AbstractMap.SimpleEntry<>(vendorName, productName);
-    }
-
     @Override
     public final void open() throws Exception {
         close();
+        mWriteAborted = false;
         try {
             if (mPort == null) {
                 throw new IllegalArgumentException("Serial port is not selected.");
@@ -746,7 +1211,7 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
                     eopString = getEop().toString();
                 }
                 notifyTrace(new TraceEventArgs(TraceTypes.INFO,
-                        "Settings: Port: " + this.getPort() + " Baud Rate: " + getBaudRate()
+                        "Settings: Port: " + this.getPort() + " Baud Rate: " + getBaudRateValue()
                                 + getParity().toString() + " Stop Bits: " + getStopBits().toString() + " Eop:"
                                 + " Data Bits: " + getDataBits() + " Parity: "
                                 + eopString));
@@ -757,23 +1222,31 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
             int vendor = 0, productId = 0;
             for (Map.Entry<String, UsbDevice> it : devices.entrySet()) {
                 if (it.getKey().compareTo(mPort.getPort()) == 0) {
-                    mConnection = manager.openDevice(it.getValue());
-                    UsbInterface usbIf = it.getValue().getInterface(0);
-                    for (int pos = 0; pos != usbIf.getEndpointCount(); ++pos) {
-                        int direction = usbIf.getEndpoint(pos).getDirection();
-                        if (usbIf.getEndpoint(pos).getType() == UsbConstants.USB_ENDPOINT_XFER_BULK) {
-                            if (direction == UsbConstants.USB_DIR_IN) {
-                                in = usbIf.getEndpoint(pos);
-                            } else if (direction == UsbConstants.USB_DIR_OUT) {
-                                mOut = usbIf.getEndpoint(pos);
-                            }
-                            if (mOut != null && in != null) {
-                                vendor = it.getValue().getVendorId();
-                                productId = it.getValue().getProductId();
-                                //Claims exclusive access to a Usb interface.
-                                //This must done to send or receive data.
-                                mConnection.claimInterface(usbIf, true);
-                                break;
+                    mDevice = it.getValue();
+                    mConnection = manager.openDevice(mDevice);
+                    //Data is transferred using the first interface that has bulk endpoints.
+                    //CDC ACM devices have separate communication and data interfaces.
+                    for (int i = 0; i != mDevice.getInterfaceCount() && mUsbIf == null; ++i) {
+                        UsbInterface usbIf = mDevice.getInterface(i);
+                        in = null;
+                        mOut = null;
+                        for (int pos = 0; pos != usbIf.getEndpointCount(); ++pos) {
+                            int direction = usbIf.getEndpoint(pos).getDirection();
+                            if (usbIf.getEndpoint(pos).getType() == UsbConstants.USB_ENDPOINT_XFER_BULK) {
+                                if (direction == UsbConstants.USB_DIR_IN) {
+                                    in = usbIf.getEndpoint(pos);
+                                } else if (direction == UsbConstants.USB_DIR_OUT) {
+                                    mOut = usbIf.getEndpoint(pos);
+                                }
+                                if (mOut != null && in != null) {
+                                    vendor = mDevice.getVendorId();
+                                    productId = mDevice.getProductId();
+                                    //Claims exclusive access to a Usb interface.
+                                    //This must done to send or receive data.
+                                    mConnection.claimInterface(usbIf, true);
+                                    mUsbIf = usbIf;
+                                    break;
+                                }
                             }
                         }
                     }
@@ -787,9 +1260,13 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
                 throw new RuntimeException("Invalid vendor id: " + vendor + " product Id: " + productId);
             }
             byte[] rawDescriptors = mConnection.getRawDescriptors();
+            mChipset.resetLineStatus();
             if (!mChipset.open(this, mConnection, rawDescriptors)) {
                 throw new Exception("Failed to open serial port.");
             }
+            if (mReceiveRingSize != 0) {
+                mRing = new GXRingReceiver(mReceiveRingSize);
+            }
             mReceiver = new GXReceiveThread(this, mConnection, in);
             mReceiver.start();
             notifyMediaStateChange(MediaState.OPEN);
@@ -801,15 +1278,35 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
 
     @Override
     public final void close() {
+        GXWriteThread writer;
+        synchronized (this) {
+            writer = mWriter;
+            mWriter = null;
+        }
+        //Pending write ends after the current block transfer.
+        mWriteAborted = true;
+        if (writer != null) {
+            //Wait until write thread has ended before connection is closed.
+            //Blocked transfer fails when the connection is closed.
+            writer.close();
+        }
+        if (mReceiver != null) {
+            //Receiver doesn't report errors when the interface is released.
+            mReceiver.close();
+        }
+        if (mConnection != null && mChipset != null) {
+            mChipset.close(mConnection);
+        }
         if (mUsbIf != null) {
             mConnection.releaseInterface(mUsbIf);
             mUsbIf = null;
         }
 
         if (mConnection != null) {
-            if (mReceiver != null) {
-                mReceiver.interrupt();
-                mReceiver = null;
+            mReceiver = null;
+            if (mRing != null) {
+                mRing.close();
+                mRing = null;
             }
             try {
                 notifyMediaStateChange(MediaState.CLOSING);
@@ -818,6 +1315,7 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
                 throw ex;
             } finally {
                 mOut = null;
+                mDevice = null;
                 mConnection.close();
                 mConnection = null;
                 notifyMediaStateChange(MediaState.CLOSED);
@@ -830,11 +1328,17 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
     /**
      * Used baud rate for communication. Can be changed without disconnecting.
      *
-     * @return Used baud rate.
+     * @return Used baud rate or null, if baud rate is not one of the standard baud rates.
+     * @see #getBaudRateValue
      */
 
     public final BaudRate getBaudRate() {
-        return mBaudRate;
+        for (BaudRate it : BaudRate.values()) {
+            if (it.getValue() == mBaudRate) {
+                return it;
+            }
+        }
+        return null;
     }
 
     /**
@@ -843,13 +1347,60 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
      * @param value New baud rate.
      */
     public final void setBaudRate(final BaudRate value) {
-        boolean change = getBaudRate() != value;
-        if (change) {
+        if (value == null) {
+            throw new IllegalArgumentException("Invalid baud rate.");
+        }
+        setBaudRate(value.getValue());
+    }
+
+    /**
+     * Used baud rate for communication in bits per second.
+     *
+     * @return Used baud rate.
+     */
+    public final int getBaudRateValue() {
+        return mBaudRate;
+    }
+
+    /**
+     * Set new baud rate in bits per second.
+     * Use this when baud rate is not one of the standard baud rates, e.g. 230400, 460800 or 921600.
+     *
+     * @param value New baud rate.
+     */
+    public final void setBaudRate(final int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Invalid baud rate.");
+        }
+        if (mBaudRate != value) {
             mBaudRate = value;
             notifyPropertyChanged("BaudRate");
         }
     }
 
+    /**
+     * Gets baud rate that the chipset achieves with the used clock divisor.
+     * If the port is closed or the chipset uses the baud rate as it is, requested baud rate is returned.
+     *
+     * @return Achieved baud rate.
+     */
+    public final int getActualBaudRate() {
+        if (isOpen() && mChipset.getActualBaudRate() != 0) {
+            return mChipset.getActualBaudRate();
+        }
+        return mBaudRate;
+    }
+
+    /**
+     * Gets difference between achieved and requested baud rate in percent.
+     *
+     * @return Baud rate error in percent.
+     */
+    public final double getBaudRateError() {
+        int baudRate = mBaudRate;
+        return (getActualBaudRate() - baudRate) * 100.0 / baudRate;
+    }
+
     /**
      * Get is Data Terminal Ready (DTR) signal enabled.
      *
@@ -906,6 +1457,162 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
         }
     }
 
+    /**
+     * Gets latency timer in milliseconds.
+     * The chipset sends partially filled USB packets to the host when latency timer expires.
+     * If the port is open and the chipset supports latency timer, value is read from the device.
+     *
+     * @return Latency timer in milliseconds.
+     */
+    public final int getLatencyTimer() throws IOException {
+        if (isOpen() && mChipset.isLatencyTimerSupported()) {
+            return mChipset.getLatencyTimer(this, mConnection);
+        }
+        return mLatencyTimer;
+    }
+
+    /**
+     * Sets latency timer in milliseconds. Value must be between 1 and 255.
+     * Lower value shortens the request/response turn around time.
+     * Latency timer is currently supported by FTDI chipsets.
+     * If the port is open, new value is taken in use immediately.
+     *
+     * @param value Latency timer in milliseconds.
+     */
+    public final void setLatencyTimer(final int value) throws IOException {
+        if (value < 1 || value > 255) {
+            throw new IllegalArgumentException("Invalid latency timer value.");
+        }
+        boolean change = mLatencyTimer != value;
+        if (isOpen() && mChipset.isLatencyTimerSupported()) {
+            mChipset.setLatencyTimer(this, mConnection, value);
+        }
+        mLatencyTimer = value;
+        if (change) {
+            notifyPropertyChanged("LatencyTimer");
+        }
+    }
+
+    /**
+     * Check is the modem line reported by the chipset. If line is not reported,
+     * line getter returns false and real line state is unknown.
+     *
+     * @param line Modem line.
+     * @return True, if port is open and chipset reports the line state.
+     */
+    public final boolean isModemStatusSupported(final ModemLine line) {
+        if (line == null) {
+            throw new IllegalArgumentException("Invalid modem line.");
+        }
+        if (!isOpen()) {
+            return false;
+        }
+        int mask;
+        switch (line) {
+            case CTS:
+                mask = GXChipset.MODEM_STATUS_CTS;
+                break;
+            case DSR:
+                mask = GXChipset.MODEM_STATUS_DSR;
+                break;
+            case RI:
+                mask = GXChipset.MODEM_STATUS_RI;
+                break;
+            default:
+                mask = GXChipset.MODEM_STATUS_CD;
+                break;
+        }
+        return (mChipset.getSupportedModemStatus() & mask) != 0;
+    }
+
+    /**
+     * Gets the state of the Clear To Send (CTS) line.
+     *
+     * @return Is CTS set. False also if the chipset doesn't report the line.
+     * @see #isModemStatusSupported(ModemLine)
+     */
+    public final boolean getCtsHolding() {
+        return isOpen() && (mChipset.getModemStatus() & GXChipset.MODEM_STATUS_CTS) != 0;
+    }
+
+    /**
+     * Gets the state of the Data Set Ready (DSR) signal.
+     *
+     * @return Is DSR set. False also if the chipset doesn't report the line.
+     * @see #isModemStatusSupported(ModemLine)
+     */
+    public final boolean getDsrHolding() {
+        return isOpen() && (mChipset.getModemStatus() & GXChipset.MODEM_STATUS_DSR) != 0;
+    }
+
+    /**
+     * Gets the state of the Carrier Detect (CD) line.
+     *
+     * @return Is CD set. False also if the chipset doesn't report the line.
+     * @see #isModemStatusSupported(ModemLine)
+     */
+    public final boolean getCDHolding() {
+        return isOpen() && (mChipset.getModemStatus() & GXChipset.MODEM_STATUS_CD) != 0;
+    }
+
+    /**
+     * Gets the state of the Ring Indicator (RI) line.
+     *
+     * @return Is RI set. False also if the chipset doesn't report the line.
+     * @see #isModemStatusSupported(ModemLine)
+     */
+    public final boolean getRingIndicator() {
+        return isOpen() && (mChipset.getModemStatus() & GXChipset.MODEM_STATUS_RI) != 0;
+    }
+
+    /**
+     * Gets amount of overrun errors reported by the chipset after the port was opened.
+     *
+     * @return Amount of overrun errors.
+     */
+    public final long getOverrunErrors() {
+        if (mChipset == null) {
+            return 0;
+        }
+        return mChipset.getOverrunErrors();
+    }
+
+    /**
+     * Gets amount of parity errors reported by the chipset after the port was opened.
+     *
+     * @return Amount of parity errors.
+     */
+    public final long getParityErrors() {
+        if (mChipset == null) {
+            return 0;
+        }
+        return mChipset.getParityErrors();
+    }
+
+    /**
+     * Gets amount of framing errors reported by the chipset after the port was opened.
+     *
+     * @return Amount of framing errors.
+     */
+    public final long getFramingErrors() {
+        if (mChipset == null) {
+            return 0;
+        }
+        return mChipset.getFramingErrors();
+    }
+
+    /**
+     * Gets amount of break interrupts reported by the chipset after the port was opened.
+     *
+     * @return Amount of break interrupts.
+     */
+    public final long getBreakInterrupts() {
+        if (mChipset == null) {
+            return 0;
+        }
+        return mChipset.getBreakInterrupts();
+    }
+
     /**
      * Used serial port chipset.
      *
@@ -989,7 +1696,9 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
         mPort = value;
         if (change) {
             notifyPropertyChanged("PortName");
-            if (value != null && value.getVendorId() != 0 && value.getProductId() != 0) {
+            if (value != null && value.getChipset() != Chipset.NONE) {
+                mChipset = getChipSet(value.getChipset());
+            } else if (value != null && value.getVendorId() != 0 && value.getProductId() != 0) {
                 mChipset = getChipSet(null, value.getVendorId(), value.getProductId());
             }
         }
@@ -1017,6 +1726,184 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
         }
     }
 
+    /**
+     * Gets amount of USB requests that are kept queued to the bulk IN endpoint.
+     * If value is zero or one, data is read using blocking bulk transfers.
+     *
+     * @return Amount of queued USB requests.
+     */
+    public final int getReceiveRequestCount() {
+        return mReceiveRequestCount;
+    }
+
+    /**
+     * Sets amount of USB requests that are kept queued to the bulk IN endpoint.
+     * When several requests are queued the endpoint is always armed and
+     * the adapter can move data while earlier reads are handled.
+     * Queued mode is not used by default. Compare throughput with getBytesReceived
+     * on the target adapter before it's taken in use.
+     * New value is used when the port is opened next time.
+     *
+     * @param value Amount of queued USB requests.
+     */
+    public final void setReceiveRequestCount(final int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid receive request count.");
+        }
+        boolean change = mReceiveRequestCount != value;
+        mReceiveRequestCount = value;
+        if (change) {
+            notifyPropertyChanged("ReceiveRequestCount");
+        }
+    }
+
+    /**
+     * Gets size of one write transfer in bytes.
+     * If value is zero, max packet size of the bulk OUT endpoint is used.
+     *
+     * @return Write transfer size.
+     */
+    public final int getWriteTransferSize() {
+        return mWriteTransferSize;
+    }
+
+    /**
+     * Sets size of one write transfer in bytes, for example 4096 or 16384.
+     * Value is rounded down to the multiple of the max packet size of the bulk OUT endpoint.
+     * Large transfers reduce the amount of USB writes when big blocks are sent.
+     *
+     * @param value Write transfer size.
+     */
+    public final void setWriteTransferSize(final int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid write transfer size.");
+        }
+        boolean change = mWriteTransferSize != value;
+        mWriteTransferSize = value;
+        if (change) {
+            notifyPropertyChanged("WriteTransferSize");
+        }
+    }
+
+    /**
+     * Gets time in milliseconds how long small asynchronous writes are collected
+     * before they are sent.
+     *
+     * @return Write coalesce time.
+     * @see #sendAsync
+     */
+    public final int getWriteCoalesceTime() {
+        return mWriteCoalesceTime;
+    }
+
+    /**
+     * Sets time in milliseconds how long small asynchronous writes are collected
+     * before they are sent. Writes are merged until write transfer size is reached.
+     * If value is zero, only writes that are already queued are merged.
+     *
+     * @param value Write coalesce time.
+     * @see #sendAsync
+     */
+    public final void setWriteCoalesceTime(final int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid write coalesce time.");
+        }
+        boolean change = mWriteCoalesceTime != value;
+        mWriteCoalesceTime = value;
+        if (change) {
+            notifyPropertyChanged("WriteCoalesceTime");
+        }
+    }
+
+    /**
+     * Gets is zero-length packet sent when data size is multiple of max packet size.
+     *
+     * @return True, if zero-length packet is sent.
+     */
+    public final boolean getWriteZeroLengthPacket() {
+        return mWriteZeroLengthPacket;
+    }
+
+    /**
+     * Sets is zero-length packet sent when data size is multiple of max packet size.
+     * Some devices need it to know that the transfer has ended.
+     *
+     * @param value True, if zero-length packet is sent.
+     */
+    public final void setWriteZeroLengthPacket(final boolean value) {
+        boolean change = mWriteZeroLengthPacket != value;
+        mWriteZeroLengthPacket = value;
+        if (change) {
+            notifyPropertyChanged("WriteZeroLengthPacket");
+        }
+    }
+
+    /**
+     * Gets size of the lock-free ring buffer that is used with synchronous receive.
+     * If value is zero, synchronous media base is used.
+     *
+     * @return Receive ring buffer size.
+     */
+    public final int getReceiveRingSize() {
+        return mReceiveRingSize;
+    }
+
+    /**
+     * Sets size of the lock-free ring buffer that is used with synchronous receive.
+     * Receive thread writes data to the single-producer/single-consumer ring buffer and
+     * waiting thread is woken up without locking. Only one thread can wait reply at the time
+     * and reply type must be byte array. Size is rounded up to the power of two.
+     * New value is used when the port is opened next time.
+     *
+     * @param value Receive ring buffer size or zero.
+     */
+    public final void setReceiveRingSize(final int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid receive ring size.");
+        }
+        boolean change = mReceiveRingSize != value;
+        mReceiveRingSize = value;
+        if (change) {
+            notifyPropertyChanged("ReceiveRingSize");
+        }
+    }
+
+    /**
+     * @return Lock-free synchronous receiver or null if it's not used.
+     */
+    final GXRingReceiver getRing() {
+        return mRing;
+    }
+
+    /**
+     * Gets size of one receive transfer in bytes.
+     * If value is zero, max packet size of the bulk IN endpoint is used.
+     *
+     * @return Receive transfer size.
+     */
+    public final int getReceiveTransferSize() {
+        return mReceiveTransferSize;
+    }
+
+    /**
+     * Sets size of one receive transfer in bytes, for example 4096 or 16384.
+     * Value is rounded up to the multiple of the max packet size of the bulk IN endpoint.
+     * Large transfers reduce the amount of USB reads when data rate is high.
+     * New value is used when the port is opened next time.
+     *
+     * @param value Receive transfer size.
+     */
+    public final void setReceiveTransferSize(final int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid receive transfer size.");
+        }
+        boolean change = mReceiveTransferSize != value;
+        mReceiveTransferSize = value;
+        if (change) {
+            notifyPropertyChanged("ReceiveTransferSize");
+        }
+    }
+
     /**
      * Gets the standard number of stop bits per byte.
      *
@@ -1066,9 +1953,111 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
 
     @Override
     public final <T> boolean receive(final ReceiveParameters<T> args) {
+        GXRingReceiver ring = mRing;
+        if (ring != null) {
+            return ring.receive(args);
+        }
         return mSyncBase.receive(args);
     }
 
+    /**
+     * Send data and wait reply. Synchronous mode is started and old data is removed before
+     * data is sent, so reply is not lost even if it's received before the waiting begins.
+     * Synchronous mode ends when reply is received or wait time elapses.
+     *
+     * @param data Data to send.
+     * @param args Receive parameters.
+     * @param <T>  Reply type.
+     * @return True, if reply is received.
+     * @throws Exception Send failed.
+     * @see #getRoundTripTime
+     */
+    public final <T> boolean sendAndReceive(final Object data, final ReceiveParameters<T> args)
+            throws Exception {
+        synchronized (mTransactionLock) {
+            AutoCloseable sync = (AutoCloseable) getSynchronous();
+            try {
+                //Old data is removed before the request is sent.
+                resetSynchronousBuffer();
+                long start = System.nanoTime();
+                send(data);
+                boolean ret = receive(args);
+                if (ret) {
+                    mRoundTripTime = System.nanoTime() - start;
+                }
+                return ret;
+            } finally {
+                //Received data is delivered to the listeners again.
+                sync.close();
+            }
+        }
+    }
+
+    /**
+     * Send data and wait reply asynchronously. Transactions are handled in order on the
+     * transaction thread. Future fails with TimeoutException if reply is not received
+     * within the wait time.
+     *
+     * @param data Data to send.
+     * @param args Receive parameters.
+     * @param <T>  Reply type.
+     * @return Future that completes with the reply.
+     * @see #sendAndReceive
+     */
+    public final <T> CompletableFuture<T> sendAndReceiveAsync(final Object data,
+                                                              final ReceiveParameters<T> args) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        getTransactionExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                //Transaction is not sent if it's cancelled.
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    if (sendAndReceive(data, args)) {
+                        future.complete(args.getReply());
+                    } else {
+                        future.completeExceptionally(new TimeoutException("Reply not received."));
+                    }
+                } catch (Exception ex) {
+                    future.completeExceptionally(ex);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @return Executor where asynchronous transactions are handled.
+     */
+    private ExecutorService getTransactionExecutor() {
+        synchronized (this) {
+            if (mTransactionExecutor == null) {
+                mTransactionExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable r) {
+                        Thread t = new Thread(r, "GXSerial transaction");
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+            }
+            return mTransactionExecutor;
+        }
+    }
+
+    /**
+     * Gets round-trip time of the last successful transaction.
+     * Time is measured from the start of the send to the received reply.
+     *
+     * @return Round-trip time in nanoseconds.
+     * @see #sendAndReceive
+     */
+    public final long getRoundTripTime() {
+        return mRoundTripTime;
+    }
+
     @Override
     public final long getBytesSent() {
         return mBytesSend;
@@ -1096,9 +2085,9 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
             sb.append("</Port>");
             sb.append(nl);
         }
-        if (mBaudRate != BaudRate.BAUD_RATE_9600) {
+        if (mBaudRate != DEFAULT_BAUD_RATE) {
             sb.append("<BaudRate>");
-            sb.append(mBaudRate.getValue());
+            sb.append(mBaudRate);
             sb.append("</BaudRate>");
             sb.append(nl);
         }
@@ -1120,6 +2109,12 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
             sb.append("</DataBits>");
             sb.append(nl);
         }
+        if (mLatencyTimer != DEFAULT_LATENCY_TIMER) {
+            sb.append("<LatencyTimer>");
+            sb.append(mLatencyTimer);
+            sb.append("</LatencyTimer>");
+            sb.append(nl);
+        }
         return sb.toString();
     }
 
@@ -1137,10 +2132,11 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
     public final void setSettings(final String value) {
         //Reset to default values.
         mPort = null;
-        mBaudRate = BaudRate.BAUD_RATE_9600;
+        mBaudRate = DEFAULT_BAUD_RATE;
         mStopBits = StopBits.ONE;
         mParity = Parity.NONE;
         mDataBits = DEFAULT_DATA_BITS;
+        mLatencyTimer = DEFAULT_LATENCY_TIMER;
         if (value != null && !value.isEmpty()) {
             try {
                 XmlPullParser parser = Xml.newPullParser();
@@ -1164,13 +2160,15 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
                                 setPort(null);
                             }
                         } else if ("BaudRate".equalsIgnoreCase(target)) {
-                            setBaudRate(BaudRate.forValue(Integer.parseInt(readText(parser))));
+                            setBaudRate(Integer.parseInt(readText(parser)));
                         } else if ("StopBits".equalsIgnoreCase(target)) {
                             setStopBits(StopBits.values()[Integer.parseInt(readText(parser))]);
                         } else if ("Parity".equalsIgnoreCase(target)) {
                             setParity(Parity.values()[Integer.parseInt(readText(parser))]);
                         } else if ("DataBits".equalsIgnoreCase(target)) {
                             setDataBits(Integer.parseInt(readText(parser)));
+                        } else if ("LatencyTimer".equalsIgnoreCase(target)) {
+                            setLatencyTimer(Integer.parseInt(readText(parser)));
                         }
                     }
                 }
@@ -1196,10 +2194,11 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
     public final void copy(final Object target) {
         GXSerial tmp = (GXSerial) target;
         setPort(tmp.getPort());
-        setBaudRate(tmp.getBaudRate());
+        setBaudRate(tmp.getBaudRateValue());
         setStopBits(tmp.getStopBits());
         setParity(tmp.getParity());
         setDataBits(tmp.getDataBits());
+        mLatencyTimer = tmp.mLatencyTimer;
     }
 
     @Override
@@ -1217,25 +2216,38 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
 
     @Override
     public final Object getSynchronous() {
-        synchronized (this) {
-            int[] tmp = new int[]{mSynchronous};
-            GXSync obj = new GXSync(tmp);
-            mSynchronous = tmp[0];
-            return obj;
-        }
+        //Synchronous mode ends when the returned object is closed.
+        mSynchronous.incrementAndGet();
+        return new AutoCloseable() {
+            private final AtomicBoolean mClosed = new AtomicBoolean();
+
+            @Override
+            public void close() {
+                //Counter is decreased only once even if object is closed several times.
+                if (mClosed.compareAndSet(false, true)) {
+                    mSynchronous.decrementAndGet();
+                }
+            }
+        };
     }
 
     @Override
     public final boolean getIsSynchronous() {
-        synchronized (this) {
-            return mSynchronous != 0;
-        }
+        return mSynchronous.get() != 0;
     }
 
     @Override
     public final void resetSynchronousBuffer() {
         synchronized (mSyncBase.getSync()) {
             mSyncBase.resetReceivedSize();
+            GXRingReceiver ring = mRing;
+            if (ring != null) {
+                ring.reset();
+            }
+            GXEopMatcher eop = mEopMatcher;
+            if (eop != null) {
+                eop.reset();
+            }
         }
     }
 
@@ -1253,9 +2265,181 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
 
     @Override
     public final void setEop(final Object value) {
+        mEopMatcher = GXEopMatcher.compile(value);
         mEop = value;
     }
 
+    /**
+     * @return Compiled end of packet or null if end of packet is not used.
+     */
+    final GXEopMatcher getEopMatcher() {
+        return mEopMatcher;
+    }
+
+    /**
+     * Gets how events are delivered to the media listeners.
+     *
+     * @return Delivery mode.
+     */
+    public final DeliveryMode getDeliveryMode() {
+        return mDeliveryMode;
+    }
+
+    /**
+     * Sets how events are delivered to the media listeners.
+     * <p>
+     * When batched delivery is used, received data, trace and error events
+     * that are pending since the last dispatch are delivered in one main thread message.
+     * At most 1024 events are kept pending. After that received data is merged to the
+     * last pending event or the oldest event is dropped.
+     *
+     * @param value Delivery mode.
+     * @see #getDroppedEvents()
+     */
+    public final void setDeliveryMode(final DeliveryMode value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Invalid delivery mode.");
+        }
+        synchronized (this) {
+            if (mExecutorDispatcher == null) {
+                if (value == DeliveryMode.IMMEDIATE) {
+                    mDispatcher = null;
+                } else if (value != mDeliveryMode || mDispatcher == null) {
+                    mDispatcher = new GXUiDispatcher(value);
+                }
+            }
+            mDeliveryMode = value;
+        }
+    }
+
+    /**
+     * Gets executor where media listeners are called.
+     *
+     * @return Delivery executor or null if delivery mode is used.
+     */
+    public final Executor getDeliveryExecutor() {
+        synchronized (this) {
+            if (mExecutorDispatcher == null) {
+                return null;
+            }
+            return mExecutorDispatcher.getExecutor();
+        }
+    }
+
+    /**
+     * Sets executor where media listeners are called. Events are queued to the bounded
+     * queue and delivered in order. When the queue is full, overflow policy is applied.
+     * <p>
+     * Handler thread can be used with {@code handler::post}.
+     * If executor is null, events are delivered using the delivery mode.
+     *
+     * @param executor Executor where listeners are called.
+     * @param capacity Max amount of queued events.
+     * @param policy   What is done when the queue is full.
+     * @see #getDroppedEvents
+     */
+    public final void setDeliveryExecutor(final Executor executor, final int capacity,
+                                          final OverflowPolicy policy) {
+        synchronized (this) {
+            if (executor == null) {
+                mExecutorDispatcher = null;
+                mDispatcher = null;
+                DeliveryMode mode = mDeliveryMode;
+                mDeliveryMode = DeliveryMode.IMMEDIATE;
+                setDeliveryMode(mode);
+                return;
+            }
+            if (capacity < 1) {
+                throw new IllegalArgumentException("Invalid capacity.");
+            }
+            if (policy == null) {
+                throw new IllegalArgumentException("Invalid overflow policy.");
+            }
+            mExecutorDispatcher = new GXExecutorDispatcher(executor, capacity, policy);
+            mDispatcher = mExecutorDispatcher;
+        }
+    }
+
+    /**
+     * Gets amount of events that are dropped because the delivery queue was full.
+     *
+     * @return Amount of dropped events.
+     * @see #setDeliveryExecutor
+     */
+    public final long getDroppedEvents() {
+        GXDispatcher dispatcher = mDispatcher;
+        if (dispatcher == null) {
+            return 0;
+        }
+        return dispatcher.getDropped();
+    }
+
+    /**
+     * Gets amount of received data events that are merged because the delivery queue was full.
+     *
+     * @return Amount of merged events.
+     * @see #setDeliveryExecutor
+     */
+    public final long getCoalescedEvents() {
+        GXDispatcher dispatcher = mDispatcher;
+        if (dispatcher == null) {
+            return 0;
+        }
+        return dispatcher.getCoalesced();
+    }
+
+    /**
+     * Gets amount of events that were delivered in the last batch.
+     *
+     * @return Amount of merged events.
+     * @see #setDeliveryMode
+     */
+    public final int getLastBatchSize() {
+        GXDispatcher dispatcher = mDispatcher;
+        if (dispatcher == null) {
+            return 0;
+        }
+        return dispatcher.getLastBatchSize();
+    }
+
+    /**
+     * Gets max amount of events that were delivered in one batch.
+     *
+     * @return Amount of merged events.
+     * @see #setDeliveryMode
+     */
+    public final int getMaxBatchSize() {
+        GXDispatcher dispatcher = mDispatcher;
+        if (dispatcher == null) {
+            return 0;
+        }
+        return dispatcher.getMaxBatchSize();
+    }
+
+    /**
+     * Gets frame decoder. Null if received data is delivered as it's received.
+     *
+     * @return Frame decoder.
+     */
+    public final IGXFrameDecoder getFrameDecoder() {
+        return mFrameDecoder;
+    }
+
+    /**
+     * Sets frame decoder. When frame decoder is set, received data is collected on
+     * the receive thread and only complete frames are delivered to the listeners and
+     * synchronous waiters. Receive delay is not used with the frame decoder.
+     *
+     * @param value Frame decoder or null.
+     * @see gurux.serial.decoders
+     */
+    public final void setFrameDecoder(final IGXFrameDecoder value) {
+        if (mFrameDecoder != value) {
+            mFrameDecoder = value;
+            notifyPropertyChanged("FrameDecoder");
+        }
+    }
+
     @Override
     public final void addListener(final IGXMediaListener listener) {
         if (mMediaListeners.contains(listener)) {
@@ -1278,6 +2462,75 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
     }
 
 
+    /**
+     * Add receive buffer listener. Received data is delivered to the listener in pooled buffers.
+     *
+     * @param listener Receive buffer listener.
+     */
+    public final void addListener(final IGXReceiveBufferListener listener) {
+        if (mBufferListeners.contains(listener)) {
+            Log.w("GXSerial", "Receive buffer listener already added.");
+        }
+        synchronized (mBufferListeners) {
+            mBufferListeners.add(listener);
+            mBufferListenerArray = mBufferListeners.toArray(new IGXReceiveBufferListener[0]);
+        }
+    }
+
+    /**
+     * Remove receive buffer listener.
+     *
+     * @param listener Receive buffer listener.
+     */
+    public final void removeListener(final IGXReceiveBufferListener listener) {
+        synchronized (mBufferListeners) {
+            mBufferListeners.remove(listener);
+            mBufferListenerArray = mBufferListeners.toArray(new IGXReceiveBufferListener[0]);
+        }
+    }
+
+    /**
+     * Add data listener. Received data is delivered to the listener without copying it.
+     *
+     * @param listener Data listener.
+     */
+    public final void addListener(final IGXSerialDataListener listener) {
+        if (mDataListeners.contains(listener)) {
+            Log.w("GXSerial", "Data listener already added.");
+        }
+        mDataListeners.add(listener);
+    }
+
+    /**
+     * Remove data listener.
+     *
+     * @param listener Data listener.
+     */
+    public final void removeListener(final IGXSerialDataListener listener) {
+        mDataListeners.remove(listener);
+    }
+
+    /**
+     * Gets executor where data listeners are called.
+     *
+     * @return Data listener executor or null if listeners are called on the receive thread.
+     */
+    public final Executor getDataExecutor() {
+        return mDataExecutor;
+    }
+
+    /**
+     * Sets executor where data listeners are called.
+     * If executor is null, data listeners are called on the receive thread and they get a view
+     * to the receive buffer. If executor is set, data is copied to the pooled buffer
+     * that is valid until the listeners return.
+     *
+     * @param value Data listener executor.
+     */
+    public final void setDataExecutor(final Executor value) {
+        mDataExecutor = value;
+    }
+
     @Override
     public final void removeListener(final IGXMediaListener listener) {
         mMediaListeners.remove(listener);
@@ -1303,6 +2556,55 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
         receiveDelay = value;
     }
 
+    /**
+     * Gets idle timeout in milliseconds when receive delay is used.
+     * Collected data is delivered if new data is not received within this time.
+     * Zero means that data is delivered when receive delay is elapsed.
+     *
+     * @return Receive idle timeout.
+     */
+    public final int getReceiveIdleTimeout() {
+        return mReceiveIdleTimeout;
+    }
+
+    /**
+     * Sets idle timeout in milliseconds when receive delay is used.
+     * Collected data is delivered if new data is not received within this time.
+     * Zero means that data is delivered when receive delay is elapsed.
+     *
+     * @param value Receive idle timeout.
+     */
+    public final void setReceiveIdleTimeout(final int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid receive idle timeout.");
+        }
+        mReceiveIdleTimeout = value;
+    }
+
+    /**
+     * Gets max size of the data that is collected when receive delay is used.
+     * This is also the max frame size when frame decoder is used.
+     *
+     * @return Receive max size in bytes.
+     */
+    public final int getReceiveMaxSize() {
+        return mReceiveMaxSize;
+    }
+
+    /**
+     * Sets max size of the data that is collected when receive delay is used.
+     * Collected data is delivered when it reaches this size.
+     * New value is used when the port is opened next time.
+     *
+     * @param value Receive max size in bytes.
+     */
+    public final void setReceiveMaxSize(final int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("Invalid receive max size.");
+        }
+        mReceiveMaxSize = value;
+    }
+
     @Override
     public int getAsyncWaitTime() {
         return asyncWaitTime;
@@ -1322,9 +2624,12 @@ public class GXSerial implements IGXMedia2, AutoCloseable {
      * Stop listen events.
      */
     public void Destroy() {
-        if (mUsbReceiver != null) {
-            mContext.unregisterReceiver(mUsbReceiver);
-            mUsbReceiver = null;
+        mHub.detach(this);
+        synchronized (this) {
+            if (mTransactionExecutor != null) {
+                mTransactionExecutor.shutdownNow();
+                mTransactionExecutor = null;
+            }
         }
     }
 
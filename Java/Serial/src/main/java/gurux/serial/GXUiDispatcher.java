@@ -0,0 +1,180 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.ArrayDeque;
+
+import gurux.serial.enums.DeliveryMode;
+
+/**
+ * UI dispatcher collects events that are pending since the last dispatch and delivers them
+ * in one main thread message. Events can be also aligned to the display frames.
+ * <p>
+ * Dispatcher itself is the posted batch task. Amount of pending events is limited.
+ * When the limit is reached, new data or trace event is merged to the last pending event or
+ * the oldest data or trace event is dropped. Control events are always delivered.
+ *
+ * @author Gurux Ltd.
+ */
+final class GXUiDispatcher extends GXDispatcher implements Runnable, Choreographer.FrameCallback {
+    /**
+     * Max amount of pending events.
+     */
+    static final int MAX_PENDING = 1024;
+
+    /**
+     * Main thread handler.
+     */
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Is delivery aligned to the display frames.
+     */
+    private final boolean mFrame;
+
+    /**
+     * Main thread choreographer. Null until it's get from the main thread.
+     */
+    private volatile Choreographer mChoreographer;
+
+    /**
+     * Events that are waiting for delivery.
+     */
+    private ArrayDeque<Runnable> mPending = new ArrayDeque<>();
+
+    /**
+     * Events that are delivered.
+     */
+    private ArrayDeque<Runnable> mRunning = new ArrayDeque<>();
+
+    /**
+     * Is delivery scheduled.
+     */
+    private boolean mScheduled;
+
+    /**
+     * Constructor.
+     *
+     * @param mode Delivery mode.
+     */
+    GXUiDispatcher(final DeliveryMode mode) {
+        mFrame = mode == DeliveryMode.FRAME;
+        if (mFrame && Looper.myLooper() == Looper.getMainLooper()) {
+            mChoreographer = Choreographer.getInstance();
+        }
+    }
+
+    @Override
+    void post(final Runnable task) {
+        Runnable removed = null;
+        boolean schedule = false;
+        synchronized (this) {
+            if (mPending.size() >= MAX_PENDING && task instanceof Event) {
+                Runnable last = mPending.peekLast();
+                if (last instanceof Event && ((Event) last).merge(task)) {
+                    coalesced();
+                    return;
+                }
+                //If event can't be merged the oldest data or trace event is dropped.
+                removed = pollDroppable(mPending);
+                if (removed == null) {
+                    //Only control events are pending.
+                    removed = task;
+                }
+            }
+            if (removed != task) {
+                mPending.add(task);
+                if (!mScheduled) {
+                    mScheduled = true;
+                    schedule = true;
+                }
+            }
+        }
+        if (removed != null) {
+            dropped(removed);
+        }
+        if (schedule) {
+            Choreographer choreographer = mChoreographer;
+            if (choreographer != null) {
+                choreographer.postFrameCallback(this);
+            } else {
+                mHandler.post(this);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        if (mFrame) {
+            //Choreographer is get on the main thread.
+            Choreographer choreographer = Choreographer.getInstance();
+            mChoreographer = choreographer;
+            choreographer.postFrameCallback(this);
+        } else {
+            deliver();
+        }
+    }
+
+    @Override
+    public void doFrame(final long frameTimeNanos) {
+        deliver();
+    }
+
+    /**
+     * Deliver pending events.
+     */
+    private void deliver() {
+        ArrayDeque<Runnable> tasks;
+        synchronized (this) {
+            tasks = mPending;
+            mPending = mRunning;
+            mRunning = tasks;
+            mScheduled = false;
+        }
+        int count = tasks.size();
+        try {
+            for (Runnable it : tasks) {
+                it.run();
+            }
+        } finally {
+            tasks.clear();
+            batchDelivered(count);
+        }
+    }
+}
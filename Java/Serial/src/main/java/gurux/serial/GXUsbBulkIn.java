@@ -0,0 +1,145 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial;
+
+import android.hardware.usb.UsbDeviceConnection;
+import android.hardware.usb.UsbEndpoint;
+import android.hardware.usb.UsbRequest;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * USB bulk IN endpoint.
+ * <p>
+ * Completed requests of the connection are returned to the thread that waits them.
+ * Requests of other endpoints, like CDC ACM notifications, are given to their listeners.
+ *
+ * @author Gurux Ltd.
+ */
+final class GXUsbBulkIn implements IGXBulkIn {
+    /**
+     * Listener of the request that is queued to other endpoint of the same connection.
+     * Listener is set as client data of the request.
+     */
+    interface Listener {
+        /**
+         * Request is completed.
+         *
+         * @param request Completed request.
+         */
+        void completed(UsbRequest request);
+    }
+
+    /**
+     * USB device connection.
+     */
+    private final UsbDeviceConnection mConnection;
+
+    /**
+     * Bulk IN endpoint.
+     */
+    private final UsbEndpoint mInput;
+
+    /**
+     * USB requests. Requests are created when they are queued first time.
+     */
+    private final UsbRequest[] mRequests;
+
+    /**
+     * Constructor.
+     *
+     * @param connection   USB device connection.
+     * @param input        Bulk IN endpoint.
+     * @param requestCount Amount of requests that can be queued.
+     */
+    GXUsbBulkIn(final UsbDeviceConnection connection, final UsbEndpoint input, final int requestCount) {
+        mConnection = connection;
+        mInput = input;
+        mRequests = new UsbRequest[requestCount];
+    }
+
+    @Override
+    public int transfer(final byte[] buffer, final int length, final int timeout) {
+        return mConnection.bulkTransfer(mInput, buffer, 0, length, timeout);
+    }
+
+    @Override
+    public boolean queue(final int request, final ByteBuffer buffer) {
+        UsbRequest tmp = mRequests[request];
+        if (tmp == null) {
+            tmp = new UsbRequest();
+            if (!tmp.initialize(mConnection, mInput)) {
+                throw new IllegalStateException("Failed to initialize USB request.");
+            }
+            tmp.setClientData(request);
+            mRequests[request] = tmp;
+        }
+        return tmp.queue(buffer);
+    }
+
+    @Override
+    public int waitRequest(final int timeout) {
+        UsbRequest request;
+        try {
+            request = mConnection.requestWait(timeout);
+        } catch (TimeoutException e) {
+            return -1;
+        }
+        if (request == null) {
+            return -1;
+        }
+        Object data = request.getClientData();
+        if (data instanceof Listener) {
+            //Request of the other endpoint is handled and read is handled as a timeout.
+            ((Listener) data).completed(request);
+            return -1;
+        }
+        return (Integer) data;
+    }
+
+    @Override
+    public void close() {
+        for (int pos = 0; pos != mRequests.length; ++pos) {
+            UsbRequest it = mRequests[pos];
+            if (it != null) {
+                it.cancel();
+                it.close();
+                mRequests[pos] = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,350 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+import android.annotation.SuppressLint;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.hardware.usb.UsbDevice;
+import android.hardware.usb.UsbManager;
+import android.os.Build;
+import android.util.Log;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Process-wide USB hub. Hub owns the broadcast receiver, the port registry and
+ * the permission state. USB events are handled once and the result is
+ * delivered to all GXSerial instances.
+ * <p>
+ * Hub is created when first GXSerial is created and it's released when the
+ * last GXSerial is destroyed.
+ *
+ * @author Gurux Ltd.
+ */
+final class GXUsbHub {
+    /**
+     * Empty instance list.
+     */
+    private static final GXSerial[] EMPTY = new GXSerial[0];
+
+    /**
+     * Active hub. Guarded by GXUsbHub.class.
+     */
+    private static GXUsbHub sInstance;
+
+    /**
+     * Application context.
+     */
+    private final Context mContext;
+
+    /**
+     * USB manager.
+     */
+    private final UsbManager mManager;
+
+    /**
+     * Available serial ports.
+     */
+    private final GXPortRegistry mRegistry = new GXPortRegistry();
+
+    /**
+     * USB broadcast receiver.
+     */
+    private final GXUsbReceiver mReceiver;
+
+    /**
+     * Serial port instances that receive the port events. Array is never modified.
+     */
+    private volatile GXSerial[] mSerials = EMPTY;
+
+    /**
+     * Names of the devices where permission is requested.
+     */
+    private final Set<String> mPending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Active background enumeration. Guarded by this.
+     */
+    private CompletableFuture<GXPort[]> mEnumeration;
+
+    /**
+     * Constructor.
+     *
+     * @param context Application context.
+     */
+    private GXUsbHub(final Context context) {
+        mContext = context;
+        mManager = (UsbManager) context.getSystemService(Context.USB_SERVICE);
+        mReceiver = new GXUsbReceiver(this);
+    }
+
+    /**
+     * Add serial port instance to the hub. Hub is created if it doesn't exist.
+     *
+     * @param context Context.
+     * @param serial  Serial port.
+     * @return USB hub.
+     */
+    @SuppressLint("UnspecifiedRegisterReceiverFlag")
+    static synchronized GXUsbHub attach(final Context context, final GXSerial serial) {
+        if (sInstance == null) {
+            Context app = context.getApplicationContext();
+            if (app == null) {
+                app = context;
+            }
+            GXUsbHub hub = new GXUsbHub(app);
+            IntentFilter filter = new IntentFilter(GXUsbReceiver.ACTION_USB_PERMISSION);
+            filter.addAction(UsbManager.ACTION_USB_DEVICE_ATTACHED);
+            filter.addAction(UsbManager.ACTION_USB_DEVICE_DETACHED);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+                app.registerReceiver(hub.mReceiver, filter, Context.RECEIVER_EXPORTED);
+            } else {
+                app.registerReceiver(hub.mReceiver, filter);
+            }
+            sInstance = hub;
+        }
+        GXSerial[] serials = sInstance.mSerials;
+        GXSerial[] tmp = new GXSerial[serials.length + 1];
+        System.arraycopy(serials, 0, tmp, 0, serials.length);
+        tmp[serials.length] = serial;
+        sInstance.mSerials = tmp;
+        return sInstance;
+    }
+
+    /**
+     * Remove serial port instance from the hub. Broadcast receiver is
+     * unregistered when the last instance is removed.
+     *
+     * @param serial Serial port.
+     */
+    void detach(final GXSerial serial) {
+        synchronized (GXUsbHub.class) {
+            GXSerial[] serials = mSerials;
+            int index = -1;
+            for (int pos = 0; pos != serials.length; ++pos) {
+                if (serials[pos] == serial) {
+                    index = pos;
+                    break;
+                }
+            }
+            if (index == -1) {
+                return;
+            }
+            if (serials.length == 1) {
+                mSerials = EMPTY;
+                mContext.unregisterReceiver(mReceiver);
+                if (sInstance == this) {
+                    sInstance = null;
+                }
+            } else {
+                GXSerial[] tmp = new GXSerial[serials.length - 1];
+                System.arraycopy(serials, 0, tmp, 0, index);
+                System.arraycopy(serials, index + 1, tmp, index, tmp.length - index);
+                mSerials = tmp;
+            }
+        }
+    }
+
+    /**
+     * @return Ports of the active hub or empty array if there are no GXSerial instances.
+     */
+    static GXPort[] getActivePorts() {
+        GXUsbHub hub;
+        synchronized (GXUsbHub.class) {
+            hub = sInstance;
+        }
+        if (hub == null) {
+            return new GXPort[0];
+        }
+        return hub.mRegistry.getPorts();
+    }
+
+    /**
+     * @return Application context.
+     */
+    Context getContext() {
+        return mContext;
+    }
+
+    /**
+     * @return USB manager.
+     */
+    UsbManager getManager() {
+        return mManager;
+    }
+
+    /**
+     * @return Port registry.
+     */
+    GXPortRegistry getRegistry() {
+        return mRegistry;
+    }
+
+    /**
+     * Add USB serial port. Permission is asked only once for each device.
+     *
+     * @param device USB device.
+     * @param notify Are instances notified.
+     */
+    void addPort(final UsbDevice device, final boolean notify) {
+        if (mRegistry.contains(device.getDeviceName())) {
+            return;
+        }
+        if (!mManager.hasPermission(device)) {
+            if (mPending.add(device.getDeviceName())) {
+                PendingIntent permissionIntent = PendingIntent.getBroadcast(mContext, 0,
+                        new Intent(GXUsbReceiver.ACTION_USB_PERMISSION),
+                        PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+                mManager.requestPermission(device, permissionIntent);
+            }
+            return;
+        }
+        GXPort port = GXSerial.createPort(this, device);
+        if (port != null && mRegistry.add(port) && notify) {
+            for (GXSerial it : mSerials) {
+                it.notifyPortAdded(port);
+            }
+        }
+    }
+
+    /**
+     * Remove USB serial port.
+     *
+     * @param device USB device to remove.
+     */
+    void removePort(final UsbDevice device) {
+        mPending.remove(device.getDeviceName());
+        int[] index = new int[1];
+        GXPort port = mRegistry.remove(device.getDeviceName(), index);
+        if (port != null) {
+            for (GXSerial it : mSerials) {
+                it.notifyPortRemoved(port, index[0]);
+            }
+        }
+    }
+
+    /**
+     * User has answered to the permission request.
+     *
+     * @param device USB device or null if device is not given.
+     */
+    void onPermission(final UsbDevice device) {
+        if (device != null) {
+            mPending.remove(device.getDeviceName());
+            if (mManager.hasPermission(device)) {
+                addPort(device, true);
+            }
+            return;
+        }
+        //Immutable pending intent doesn't carry the device. Check only devices waiting for permission.
+        if (!mPending.isEmpty()) {
+            for (UsbDevice it : mManager.getDeviceList().values()) {
+                //Permission is asked again next time if it was denied.
+                if (mPending.remove(it.getDeviceName()) && mManager.hasPermission(it)) {
+                    addPort(it, true);
+                }
+            }
+            //Devices that are already removed.
+            mPending.clear();
+        }
+    }
+
+    /**
+     * Enumerate USB devices in the caller thread. Devices are enumerated only once.
+     *
+     * @return Collection of available serial ports.
+     */
+    GXPort[] getPorts() {
+        if (!mRegistry.isEnumerated()) {
+            synchronized (this) {
+                if (!mRegistry.isEnumerated()) {
+                    for (UsbDevice it : mManager.getDeviceList().values()) {
+                        addPort(it, false);
+                    }
+                    mRegistry.setEnumerated(true);
+                }
+            }
+        }
+        return mRegistry.getPorts();
+    }
+
+    /**
+     * Enumerate USB devices in the background. Only one enumeration is made at the time.
+     *
+     * @return Collection of available serial ports when all devices are read.
+     */
+    CompletableFuture<GXPort[]> getPortsAsync() {
+        if (mRegistry.isEnumerated()) {
+            return CompletableFuture.completedFuture(mRegistry.getPorts());
+        }
+        synchronized (this) {
+            if (mEnumeration == null || mEnumeration.isDone()) {
+                Map<String, UsbDevice> devices = mManager.getDeviceList();
+                CompletableFuture<?>[] tasks = new CompletableFuture<?>[devices.size()];
+                int pos = 0;
+                for (final UsbDevice it : devices.values()) {
+                    tasks[pos] = CompletableFuture.runAsync(new Runnable() {
+                        @Override
+                        public void run() {
+                            //Failing device doesn't fail the whole enumeration.
+                            try {
+                                addPort(it, true);
+                            } catch (Exception ex) {
+                                Log.e("gurux.serial", "Failed to read USB device " + it.getDeviceName(), ex);
+                            }
+                        }
+                    }, GXPortEnumerator.getEnumerator());
+                    ++pos;
+                }
+                mEnumeration = CompletableFuture.allOf(tasks).thenApply(
+                        new Function<Void, GXPort[]>() {
+                            @Override
+                            public GXPort[] apply(final Void v) {
+                                mRegistry.setEnumerated(true);
+                                return mRegistry.getPorts();
+                            }
+                        });
+            }
+            return mEnumeration;
+        }
+    }
+}
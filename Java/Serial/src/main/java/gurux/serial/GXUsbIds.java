@@ -0,0 +1,182 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+import android.content.Context;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * USB vendor and product names. Names are read from the binary index that is generated
+ * from usbs.txt when the library is built. Index is loaded once and names are
+ * searched with binary search.
+ *
+ * @author Gurux Ltd.
+ */
+final class GXUsbIds {
+    /**
+     * Index file identifier.
+     */
+    private static final int MAGIC = 0x47585549;
+
+    /**
+     * Index file version.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Loaded index.
+     */
+    private static volatile GXUsbIds sInstance;
+
+    /**
+     * Sorted vendor ids.
+     */
+    private final int[] mVendors;
+
+    /**
+     * Offsets of the vendor names in the string table.
+     */
+    private final int[] mVendorNames;
+
+    /**
+     * Sorted product keys: vendor &lt;&lt; 16 | product.
+     */
+    private final int[] mProducts;
+
+    /**
+     * Offsets of the product names in the string table.
+     */
+    private final int[] mProductNames;
+
+    /**
+     * String table. Each string starts with 16 bit length.
+     */
+    private final byte[] mStrings;
+
+    /**
+     * Constructor.
+     *
+     * @param in Index data.
+     * @throws IOException Invalid index.
+     */
+    private GXUsbIds(final DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Invalid USB index.");
+        }
+        int count = in.readInt();
+        mVendors = new int[count];
+        mVendorNames = new int[count];
+        for (int pos = 0; pos != count; ++pos) {
+            mVendors[pos] = in.readInt();
+            mVendorNames[pos] = in.readInt();
+        }
+        count = in.readInt();
+        mProducts = new int[count];
+        mProductNames = new int[count];
+        for (int pos = 0; pos != count; ++pos) {
+            mProducts[pos] = in.readInt();
+            mProductNames[pos] = in.readInt();
+        }
+        mStrings = new byte[in.readInt()];
+        in.readFully(mStrings);
+    }
+
+    /**
+     * Get loaded index. Index is loaded when it's used first time.
+     *
+     * @param context Context.
+     * @return USB index.
+     * @throws IOException Usb index resource is not found.
+     */
+    private static GXUsbIds getInstance(final Context context) throws IOException {
+        GXUsbIds ret = sInstance;
+        if (ret == null) {
+            synchronized (GXUsbIds.class) {
+                ret = sInstance;
+                if (ret == null) {
+                    InputStream is = context.getResources().openRawResource(R.raw.usbs_index);
+                    try (DataInputStream in = new DataInputStream(new BufferedInputStream(is, 65536))) {
+                        ret = new GXUsbIds(in);
+                    }
+                    sInstance = ret;
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Get string from the string table.
+     *
+     * @param offset String offset.
+     * @return String.
+     */
+    private String getString(final int offset) {
+        int len = ((mStrings[offset] & 0xFF) << 8) | (mStrings[offset + 1] & 0xFF);
+        return new String(mStrings, offset + 2, len, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Find vendor and product name.
+     *
+     * @param context Context.
+     * @param vendor  Vendor ID.
+     * @param product Product ID.
+     * @return Vendor and product entry or null. Product name is null if it's not found.
+     * @throws IOException Usb index resource is not found.
+     */
+    static Map.Entry<String, String> find(final Context context, final int vendor,
+                                          final int product) throws IOException {
+        GXUsbIds ids = getInstance(context);
+        int index = Arrays.binarySearch(ids.mVendors, vendor);
+        if (index < 0) {
+            return null;
+        }
+        String productName = null;
+        int pos = Arrays.binarySearch(ids.mProducts, (vendor << 16) | (product & 0xFFFF));
+        if (pos >= 0) {
+            productName = ids.getString(ids.mProductNames[pos]);
+        }
+        return new AbstractMap.SimpleEntry<>(ids.getString(ids.mVendorNames[index]), productName);
+    }
+}
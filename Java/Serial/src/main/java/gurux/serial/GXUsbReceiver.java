@@ -42,8 +42,6 @@ import android.hardware.usb.UsbManager;
 import android.os.Build;
 import android.util.Log;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -52,15 +50,15 @@ import java.util.Objects;
 final class GXUsbReceiver extends BroadcastReceiver {
     static final String ACTION_USB_PERMISSION = "gurux.serial.USB_PERMISSION";
 
-    final private GXSerial mSerial;
+    final private GXUsbHub mHub;
 
     /**
      * Constructor.
      *
-     * @param serial owner.
+     * @param hub owner.
      */
-    public GXUsbReceiver(final GXSerial serial) {
-        mSerial = serial;
+    public GXUsbReceiver(final GXUsbHub hub) {
+        mHub = hub;
     }
 
     @SuppressWarnings("deprecation")
@@ -76,46 +74,37 @@ final class GXUsbReceiver extends BroadcastReceiver {
 
     @Override
     public void onReceive(final Context context, final Intent intent) {
-        String action = intent.getAction();
+        final String action = intent.getAction();
+        final UsbDevice device = getUsbDevice(intent);
+        //Device descriptors are read in the background.
+        GXPortEnumerator.getHotplug().execute(new Runnable() {
+            @Override
+            public void run() {
+                handle(action, device);
+            }
+        });
+    }
+
+    /**
+     * Handle USB event.
+     *
+     * @param action Received action.
+     * @param device USB device or null if not given.
+     */
+    private void handle(final String action, final UsbDevice device) {
         try {
             if (ACTION_USB_PERMISSION.equals(action)) {
-                ArrayList<UsbDevice> newPorts = new ArrayList<>();
-                synchronized (this) {
-                    //Add new ports where user has added permissions.
-                    UsbManager manager = (UsbManager) context.getSystemService(Context.USB_SERVICE);
-                    List<GXPort> ports = GXSerial.mPorts;
-                    if (ports == null) {
-                        ports = GXSerial.mPorts = new ArrayList<>();
-                    }
-                    for (UsbDevice usbDevice : manager.getDeviceList().values()) {
-                        boolean found = false;
-                        for (GXPort port : ports) {
-                            if (port.getPort().equals(usbDevice.getDeviceName())) {
-                                found = true;
-                                break;
-                            }
-                        }
-                        if (!found && manager.hasPermission(usbDevice)) {
-                            newPorts.add(usbDevice);
-                        }
-                    }
-                    for (UsbDevice it : newPorts) {
-                        mSerial.addPort(it, true);
-                    }
-                }
+                //Add new ports where user has added permissions.
+                mHub.onPermission(device);
             } else if (UsbManager.ACTION_USB_DEVICE_DETACHED.equals(action)) {
                 Log.i("gurux.serial", "USB removed.");
-                synchronized (this) {
-                    UsbDevice device = getUsbDevice(intent);
-                    mSerial.removePort(device);
+                if (device != null) {
+                    mHub.removePort(device);
                 }
             } else if (UsbManager.ACTION_USB_DEVICE_ATTACHED.equals(action)) {
                 Log.i("gurux.serial", "USB added.");
-                synchronized (this) {
-                    UsbDevice device = getUsbDevice(intent);
-                    if (device != null) {
-                        mSerial.addPort(device, true);
-                    }
+                if (device != null) {
+                    mHub.addPort(device, true);
                 }
             }
         } catch (
@@ -0,0 +1,283 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import gurux.common.TraceEventArgs;
+import gurux.common.enums.TraceLevel;
+import gurux.common.enums.TraceTypes;
+
+/**
+ * Write thread sends queued data to the serial port. Small writes that are queued
+ * within the coalesce time are merged to one bulk transfer.
+ *
+ * @author Gurux Ltd.
+ */
+class GXWriteThread extends Thread {
+    /**
+     * Time in milliseconds how long close waits until the write thread has ended.
+     */
+    static final int CLOSE_TIMEOUT = 1000;
+
+    /**
+     * Queued write.
+     */
+    private static final class Entry {
+        /**
+         * Data to send.
+         */
+        private final byte[] mData;
+
+        /**
+         * Future that completes when data is written.
+         */
+        private final CompletableFuture<Void> mFuture = new CompletableFuture<>();
+
+        /**
+         * Constructor.
+         *
+         * @param data Data to send.
+         */
+        Entry(final byte[] data) {
+            mData = data;
+        }
+    }
+
+    /**
+     * Parent component.
+     */
+    private final GXSerial mParentMedia;
+
+    /**
+     * Queued writes.
+     */
+    private final ArrayDeque<Entry> mQueue = new ArrayDeque<>();
+
+    /**
+     * Writes that are merged to one transfer.
+     */
+    private final List<Entry> mBatch = new ArrayList<>();
+
+    /**
+     * Buffer where merged writes are copied.
+     */
+    private byte[] mStage = new byte[0];
+
+    /**
+     * Is write thread closed.
+     */
+    private boolean mClosed;
+
+    /**
+     * Is taken batch written at the moment.
+     */
+    private boolean mBusy;
+
+    /**
+     * Constructor.
+     *
+     * @param parent Parent component.
+     */
+    GXWriteThread(final GXSerial parent) {
+        super("GXSerial write");
+        setDaemon(true);
+        mParentMedia = parent;
+    }
+
+    /**
+     * Add data to the write queue.
+     *
+     * @param data Data to send.
+     * @return Future that completes when data is written.
+     */
+    CompletableFuture<Void> add(final byte[] data) {
+        Entry entry = new Entry(data);
+        synchronized (mQueue) {
+            if (mClosed) {
+                entry.mFuture.completeExceptionally(new IllegalStateException("Serial port is not open."));
+            } else {
+                mQueue.add(entry);
+                mQueue.notifyAll();
+            }
+        }
+        return entry.mFuture;
+    }
+
+    /**
+     * Wait until queued writes are written, so synchronous write doesn't overtake them.
+     * Drain is skipped on the write thread, because the thread can't wait itself.
+     */
+    void drain() {
+        if (Thread.currentThread() == this) {
+            return;
+        }
+        synchronized (mQueue) {
+            try {
+                while (!mClosed && (mBusy || !mQueue.isEmpty())) {
+                    mQueue.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Data send failed. Interrupted.");
+            }
+        }
+    }
+
+    /**
+     * Close write thread and wait until it has ended or close timeout elapses. Queued writes fail.
+     */
+    void close() {
+        synchronized (mQueue) {
+            mClosed = true;
+            mQueue.notifyAll();
+        }
+        interrupt();
+        if (Thread.currentThread() != this) {
+            try {
+                join(CLOSE_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (isAlive()) {
+                Log.w("GXSerial", "Write thread didn't end in " + CLOSE_TIMEOUT + " ms.");
+            }
+        }
+    }
+
+    /**
+     * Wait next writes and merge them.
+     *
+     * @return Amount of bytes to write or -1 if thread is closed.
+     * @throws InterruptedException Thread is interrupted.
+     */
+    private int take() throws InterruptedException {
+        synchronized (mQueue) {
+            while (mQueue.isEmpty() && !mClosed) {
+                mQueue.wait();
+            }
+            if (mClosed) {
+                return -1;
+            }
+            int limit = mParentMedia.getWriteBlockSize();
+            long deadline = System.nanoTime() + mParentMedia.getWriteCoalesceTime() * 1000000L;
+            int size = 0;
+            while (!mClosed) {
+                Entry next = mQueue.peekFirst();
+                if (next != null) {
+                    if (!mBatch.isEmpty() && size + next.mData.length > limit) {
+                        break;
+                    }
+                    mQueue.pollFirst();
+                    mBatch.add(next);
+                    size += next.mData.length;
+                    continue;
+                }
+                //Wait more data if transfer is not full.
+                long timeout = (deadline - System.nanoTime()) / 1000000;
+                if (size >= limit || timeout < 1) {
+                    break;
+                }
+                mQueue.wait(timeout);
+            }
+            mBusy = true;
+            return size;
+        }
+    }
+
+    @Override
+    public final void run() {
+        RuntimeException closed = new IllegalStateException("Serial port is not open.");
+        try {
+            int size;
+            while ((size = take()) != -1) {
+                try {
+                    //End of packet search is reset when data is written, not when it's queued.
+                    mParentMedia.resetEndOfPacket();
+                    if (mParentMedia.getTrace() == TraceLevel.VERBOSE) {
+                        for (Entry it : mBatch) {
+                            mParentMedia.notifyTrace(new TraceEventArgs(TraceTypes.SENT, it.mData));
+                        }
+                    }
+                    if (mBatch.size() == 1) {
+                        byte[] data = mBatch.get(0).mData;
+                        mParentMedia.write(data, 0, data.length);
+                    } else {
+                        if (mStage.length < size) {
+                            mStage = new byte[size];
+                        }
+                        int pos = 0;
+                        for (Entry it : mBatch) {
+                            System.arraycopy(it.mData, 0, mStage, pos, it.mData.length);
+                            pos += it.mData.length;
+                        }
+                        mParentMedia.write(mStage, 0, size);
+                    }
+                    for (Entry it : mBatch) {
+                        it.mFuture.complete(null);
+                    }
+                } catch (RuntimeException ex) {
+                    for (Entry it : mBatch) {
+                        it.mFuture.completeExceptionally(ex);
+                    }
+                }
+                mBatch.clear();
+                synchronized (mQueue) {
+                    mBusy = false;
+                    mQueue.notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Entry it : mBatch) {
+            it.mFuture.completeExceptionally(closed);
+        }
+        synchronized (mQueue) {
+            mClosed = true;
+            mBusy = false;
+            mQueue.notifyAll();
+            for (Entry it : mQueue) {
+                it.mFuture.completeExceptionally(closed);
+            }
+            mQueue.clear();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bulk IN endpoint where received data is read. Data is read using blocking bulk transfers
+ * or using requests that are queued to the endpoint.
+ *
+ * @author Gurux Ltd.
+ * @see GXBulkReader
+ */
+interface IGXBulkIn {
+    /**
+     * Read data using blocking bulk transfer.
+     *
+     * @param buffer  Buffer where data is read.
+     * @param length  Max amount of bytes to read.
+     * @param timeout Timeout in milliseconds. Zero waits forever.
+     * @return Amount of read bytes or negative value if transfer failed or timeout occurred.
+     */
+    int transfer(byte[] buffer, int length, int timeout);
+
+    /**
+     * Queue request to the endpoint. Data is read to the buffer from its position.
+     *
+     * @param request Request index.
+     * @param buffer  Buffer where data is read.
+     * @return True, if request is queued.
+     */
+    boolean queue(int request, ByteBuffer buffer);
+
+    /**
+     * Wait until one of the queued requests is completed.
+     *
+     * @param timeout Timeout in milliseconds.
+     * @return Index of the completed request or -1 if timeout occurred.
+     */
+    int waitRequest(int timeout);
+
+    /**
+     * Cancel queued requests and release them.
+     */
+    void close();
+}
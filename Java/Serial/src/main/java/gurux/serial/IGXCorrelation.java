@@ -0,0 +1,62 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+/**
+ * Correlation interface is used to match responses to the outstanding requests
+ * when several requests are in flight.
+ *
+ * @author Gurux Ltd
+ * @see GXPipeline
+ */
+public interface IGXCorrelation {
+    /**
+     * Get correlation key of the request.
+     *
+     * @param request Sent request.
+     * @return Correlation key. Key can't be null and keys of the outstanding requests must be unique.
+     */
+    Object getRequestKey(final byte[] request);
+
+    /**
+     * Get correlation key of the response.
+     *
+     * @param buffer Received frame.
+     * @param offset Offset of the frame in the buffer.
+     * @param length Frame length.
+     * @return Correlation key or null if key is not found.
+     */
+    Object getResponseKey(final byte[] buffer, final int offset, final int length);
+}
@@ -0,0 +1,73 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+/**
+ * Frame decoder interface. Frame decoder is called on the receive thread and it splits
+ * received data to complete frames. Only complete frames are delivered to the listeners
+ * and synchronous waiters.
+ * <p>
+ * Decoder is called again with the same data when new bytes are received,
+ * so decoder should not keep any state between the calls.
+ *
+ * @author Gurux Ltd
+ * @see GXSerial#setFrameDecoder
+ */
+public interface IGXFrameDecoder {
+    /**
+     * Get length of the frame that starts from the given offset.
+     * <p>
+     * If the frame length is known but all bytes are not received yet, frame length
+     * can be returned. Decoder is called again when all bytes are available.
+     *
+     * @param buffer Received data.
+     * @param offset Offset where the frame starts.
+     * @param count  Amount of available bytes.
+     * @return Frame length in bytes, zero if more data is needed or negative amount of
+     * bytes to skip if data is not a valid frame.
+     */
+    int getFrameLength(final byte[] buffer, final int offset, final int count);
+
+    /**
+     * Get amount of bytes at the end of the frame that can also start the next frame.
+     * E.g. HDLC closing flag can be the opening flag of the next frame.
+     * Shared bytes are delivered with the frame and decoded again as the start of the next frame.
+     *
+     * @return Amount of shared bytes.
+     */
+    default int getSharedLength() {
+        return 0;
+    }
+}
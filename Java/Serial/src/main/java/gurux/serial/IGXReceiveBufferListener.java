@@ -0,0 +1,53 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+//
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2.
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+/**
+ * Receive buffer listener interface. Received data is delivered in pooled buffers
+ * so no new buffer is allocated for each received chunk.
+ *
+ * @author Gurux Ltd
+ */
+public interface IGXReceiveBufferListener {
+    /**
+     * Called when new data is received. Buffer is valid until this method returns.
+     * Listener must call {@link GXReceiveBuffer#retain()} if it handles the data later
+     * and {@link GXReceiveBuffer#release()} when data is handled.
+     *
+     * @param sender The source of the event.
+     * @param buffer Received data.
+     */
+    void onReceived(final Object sender, final GXReceiveBuffer buffer);
+}
@@ -0,0 +1,57 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial;
+
+/**
+ * Serial port data listener interface. Received data is delivered as a view to the receive buffer
+ * without copying it.
+ *
+ * @author Gurux Ltd
+ */
+public interface IGXSerialDataListener {
+    /**
+     * Called when new data is received. Listener is called for all received data,
+     * also when the media is used synchronously.
+     * <p>
+     * If data executor is not set, listener is called on the receive thread and
+     * buffer is valid only during the call. Listener must copy the data that it needs later.
+     *
+     * @param sender The source of the event.
+     * @param buffer Buffer where received data is.
+     * @param offset Offset of the received data in the buffer.
+     * @param length Amount of received bytes.
+     */
+    void onReceived(final Object sender, final byte[] buffer, final int offset, final int length);
+}
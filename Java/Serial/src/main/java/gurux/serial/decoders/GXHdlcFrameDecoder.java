@@ -0,0 +1,121 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial.decoders;
+
+import gurux.serial.IGXFrameDecoder;
+
+/**
+ * HDLC frame decoder. Decodes HDLC frame format type 3 frames that are used with DLMS/COSEM.
+ * Frame starts and ends with 0x7E flag and frame length is read from 11 bit length field.
+ * Frames with invalid closing flag or frame check sequence are skipped.
+ * Closing flag of the frame can be the opening flag of the next frame.
+ *
+ * @author Gurux Ltd
+ */
+public class GXHdlcFrameDecoder implements IGXFrameDecoder {
+    /**
+     * HDLC frame start and end flag.
+     */
+    private static final byte FLAG = 0x7E;
+
+    /**
+     * Minimum value of the length field: format, addresses, control and FCS.
+     */
+    private static final int MIN_LENGTH = 7;
+
+    @Override
+    public final int getFrameLength(final byte[] buffer, final int offset, final int count) {
+        if (buffer[offset] != FLAG) {
+            //Skip until next flag.
+            int pos = 1;
+            while (pos != count && buffer[offset + pos] != FLAG) {
+                ++pos;
+            }
+            return -pos;
+        }
+        if (count < 3) {
+            return 0;
+        }
+        int format = buffer[offset + 1] & 0xFF;
+        //Closing flag of the previous frame or format type is not 3.
+        if ((format & 0xF8) != 0xA0) {
+            return -1;
+        }
+        int len = ((format & 0x7) << 8) | (buffer[offset + 2] & 0xFF);
+        if (len < MIN_LENGTH) {
+            return -1;
+        }
+        if (count < len + 2) {
+            return len + 2;
+        }
+        if (buffer[offset + len + 1] != FLAG) {
+            return -1;
+        }
+        int fcs = (buffer[offset + len - 1] & 0xFF) | ((buffer[offset + len] & 0xFF) << 8);
+        if (fcs != countFcs(buffer, offset + 1, len - 2)) {
+            return -1;
+        }
+        return len + 2;
+    }
+
+    @Override
+    public final int getSharedLength() {
+        //Closing flag can be the opening flag of the next frame.
+        return 1;
+    }
+
+    /**
+     * Count HDLC frame check sequence.
+     *
+     * @param buffer Data.
+     * @param offset Data offset.
+     * @param count  Data size.
+     * @return Frame check sequence.
+     */
+    private static int countFcs(final byte[] buffer, final int offset, final int count) {
+        int fcs = 0xFFFF;
+        for (int pos = offset; pos != offset + count; ++pos) {
+            fcs ^= buffer[pos] & 0xFF;
+            for (int bit = 0; bit != 8; ++bit) {
+                if ((fcs & 1) != 0) {
+                    fcs = (fcs >>> 1) ^ 0x8408;
+                } else {
+                    fcs >>>= 1;
+                }
+            }
+        }
+        return ~fcs & 0xFFFF;
+    }
+}
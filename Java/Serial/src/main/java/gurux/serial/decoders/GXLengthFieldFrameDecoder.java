@@ -0,0 +1,153 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial.decoders;
+
+import gurux.serial.IGXFrameDecoder;
+
+/**
+ * Length field frame decoder. Decodes frames where frame length is given in the header.
+ * <p>
+ * Frame length is: length offset + length size + value of the length field + adjustment.
+ *
+ * @author Gurux Ltd
+ */
+public class GXLengthFieldFrameDecoder implements IGXFrameDecoder {
+    /**
+     * Offset of the length field.
+     */
+    private final int mLengthOffset;
+    /**
+     * Size of the length field in bytes.
+     */
+    private final int mLengthSize;
+    /**
+     * Is length field in big endian byte order.
+     */
+    private final boolean mBigEndian;
+    /**
+     * Value that is added to the length field.
+     */
+    private final int mAdjustment;
+    /**
+     * Max frame length.
+     */
+    private final int mMaxFrameLength;
+
+    /**
+     * Constructor.
+     *
+     * @param lengthOffset   Offset of the length field.
+     * @param lengthSize     Size of the length field in bytes. 1, 2 or 4.
+     * @param bigEndian      Is length field in big endian byte order.
+     * @param adjustment     Value that is added to the length field.
+     * @param maxFrameLength Max frame length. Longer frames are skipped.
+     */
+    public GXLengthFieldFrameDecoder(final int lengthOffset, final int lengthSize,
+                                     final boolean bigEndian, final int adjustment,
+                                     final int maxFrameLength) {
+        if (lengthOffset < 0) {
+            throw new IllegalArgumentException("Invalid length offset.");
+        }
+        if (lengthSize != 1 && lengthSize != 2 && lengthSize != 4) {
+            throw new IllegalArgumentException("Invalid length size.");
+        }
+        if (maxFrameLength < 1) {
+            throw new IllegalArgumentException("Invalid max frame length.");
+        }
+        mLengthOffset = lengthOffset;
+        mLengthSize = lengthSize;
+        mBigEndian = bigEndian;
+        mAdjustment = adjustment;
+        mMaxFrameLength = maxFrameLength;
+    }
+
+    /**
+     * @return Offset of the length field.
+     */
+    public final int getLengthOffset() {
+        return mLengthOffset;
+    }
+
+    /**
+     * @return Size of the length field in bytes.
+     */
+    public final int getLengthSize() {
+        return mLengthSize;
+    }
+
+    /**
+     * @return Is length field in big endian byte order.
+     */
+    public final boolean isBigEndian() {
+        return mBigEndian;
+    }
+
+    /**
+     * @return Value that is added to the length field.
+     */
+    public final int getAdjustment() {
+        return mAdjustment;
+    }
+
+    /**
+     * @return Max frame length.
+     */
+    public final int getMaxFrameLength() {
+        return mMaxFrameLength;
+    }
+
+    @Override
+    public final int getFrameLength(final byte[] buffer, final int offset, final int count) {
+        int header = mLengthOffset + mLengthSize;
+        if (count < header) {
+            return 0;
+        }
+        long value = 0;
+        for (int pos = 0; pos != mLengthSize; ++pos) {
+            int b;
+            if (mBigEndian) {
+                b = buffer[offset + mLengthOffset + pos] & 0xFF;
+            } else {
+                b = buffer[offset + mLengthOffset + mLengthSize - 1 - pos] & 0xFF;
+            }
+            value = (value << 8) | b;
+        }
+        long len = header + value + mAdjustment;
+        if (len < header || len > mMaxFrameLength) {
+            return -1;
+        }
+        return (int) len;
+    }
+}
@@ -0,0 +1,119 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial.decoders;
+
+import gurux.serial.IGXFrameDecoder;
+
+/**
+ * M-Bus frame decoder. Decodes single character, short, control and long frames.
+ * Frames with invalid checksum or stop byte are skipped.
+ *
+ * @author Gurux Ltd
+ */
+public class GXMBusFrameDecoder implements IGXFrameDecoder {
+    /**
+     * Single character acknowledgement.
+     */
+    private static final byte ACK = (byte) 0xE5;
+
+    /**
+     * Start byte of the short frame.
+     */
+    private static final byte SHORT_START = 0x10;
+
+    /**
+     * Start byte of the control and long frame.
+     */
+    private static final byte LONG_START = 0x68;
+
+    /**
+     * Stop byte.
+     */
+    private static final byte STOP = 0x16;
+
+    @Override
+    public final int getFrameLength(final byte[] buffer, final int offset, final int count) {
+        byte start = buffer[offset];
+        if (start == ACK) {
+            return 1;
+        }
+        if (start == SHORT_START) {
+            if (count < 5) {
+                return 5;
+            }
+            if (buffer[offset + 4] != STOP
+                    || buffer[offset + 3] != checksum(buffer, offset + 1, 2)) {
+                return -1;
+            }
+            return 5;
+        }
+        if (start != LONG_START) {
+            return -1;
+        }
+        if (count < 4) {
+            return 0;
+        }
+        int len = buffer[offset + 1] & 0xFF;
+        //Length is sent twice and control frame has at least C, A and CI fields.
+        if (len < 3 || buffer[offset + 2] != buffer[offset + 1]
+                || buffer[offset + 3] != LONG_START) {
+            return -1;
+        }
+        if (count < len + 6) {
+            return len + 6;
+        }
+        if (buffer[offset + len + 5] != STOP
+                || buffer[offset + len + 4] != checksum(buffer, offset + 4, len)) {
+            return -1;
+        }
+        return len + 6;
+    }
+
+    /**
+     * Count M-Bus checksum.
+     *
+     * @param buffer Data.
+     * @param offset Data offset.
+     * @param count  Data size.
+     * @return Checksum.
+     */
+    private static byte checksum(final byte[] buffer, final int offset, final int count) {
+        int sum = 0;
+        for (int pos = offset; pos != offset + count; ++pos) {
+            sum += buffer[pos];
+        }
+        return (byte) sum;
+    }
+}
@@ -0,0 +1,128 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+package gurux.serial.decoders;
+
+import gurux.serial.IGXFrameDecoder;
+
+/**
+ * Modbus RTU frame decoder. Decodes responses that the slave sends to the master.
+ * Frame length is resolved from the function code and byte count and frames
+ * with invalid CRC are skipped.
+ *
+ * @author Gurux Ltd
+ */
+public class GXModbusRtuFrameDecoder implements IGXFrameDecoder {
+
+    @Override
+    public final int getFrameLength(final byte[] buffer, final int offset, final int count) {
+        if (count < 3) {
+            return 0;
+        }
+        int function = buffer[offset + 1] & 0xFF;
+        int len;
+        if ((function & 0x80) != 0) {
+            //Exception response.
+            len = 5;
+        } else {
+            switch (function) {
+                case 1:
+                case 2:
+                case 3:
+                case 4:
+                case 12:
+                case 17:
+                case 20:
+                case 21:
+                case 23:
+                    //Address, function, byte count, data and CRC.
+                    len = 5 + (buffer[offset + 2] & 0xFF);
+                    break;
+                case 5:
+                case 6:
+                case 8:
+                case 11:
+                case 15:
+                case 16:
+                    len = 8;
+                    break;
+                case 7:
+                    len = 5;
+                    break;
+                case 22:
+                    len = 10;
+                    break;
+                case 24:
+                    if (count < 4) {
+                        return 0;
+                    }
+                    len = 6 + (((buffer[offset + 2] & 0xFF) << 8) | (buffer[offset + 3] & 0xFF));
+                    break;
+                default:
+                    return -1;
+            }
+        }
+        if (count < len) {
+            return len;
+        }
+        int crc = (buffer[offset + len - 2] & 0xFF) | ((buffer[offset + len - 1] & 0xFF) << 8);
+        if (crc != countCrc(buffer, offset, len - 2)) {
+            return -1;
+        }
+        return len;
+    }
+
+    /**
+     * Count Modbus CRC.
+     *
+     * @param buffer Data.
+     * @param offset Data offset.
+     * @param count  Data size.
+     * @return CRC.
+     */
+    private static int countCrc(final byte[] buffer, final int offset, final int count) {
+        int crc = 0xFFFF;
+        for (int pos = offset; pos != offset + count; ++pos) {
+            crc ^= buffer[pos] & 0xFF;
+            for (int bit = 0; bit != 8; ++bit) {
+                if ((crc & 1) != 0) {
+                    crc = (crc >>> 1) ^ 0xA001;
+                } else {
+                    crc >>>= 1;
+                }
+            }
+        }
+        return crc;
+    }
+}
@@ -56,7 +56,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
-import gurux.io.BaudRate;
 import gurux.io.Parity;
 import gurux.io.StopBits;
 import gurux.serial.GXPort;
@@ -169,7 +168,7 @@ public class PropertiesFragment extends Fragment implements IGXSerialListener {
     }
 
     private String getBaudRate() {
-        return getString(R.string.baudRate) + System.lineSeparator() + mSerial.getBaudRate().getValue();
+        return getString(R.string.baudRate) + System.lineSeparator() + mSerial.getBaudRateValue();
     }
 
     private String getDataBits() {
@@ -257,7 +256,7 @@ public class PropertiesFragment extends Fragment implements IGXSerialListener {
             String[] values = new String[tmp.length];
             int pos = 0;
             int selected = -1;
-            int actual = mSerial.getBaudRate().getValue();
+            int actual = mSerial.getBaudRateValue();
             for (int it : tmp) {
                 values[pos] = String.valueOf(it);
                 //Get selected item.
@@ -268,7 +267,7 @@ public class PropertiesFragment extends Fragment implements IGXSerialListener {
             }
             builder.setTitle(R.string.baudRate)
                     .setSingleChoiceItems(values, selected, (dialog, which) -> {
-                        mSerial.setBaudRate(BaudRate.forValue(tmp[which]));
+                        mSerial.setBaudRate(tmp[which]);
                         rows.set(1, getBaudRate());
                         ((BaseAdapter) listView.getAdapter()).notifyDataSetChanged();
                         dialog.dismiss();
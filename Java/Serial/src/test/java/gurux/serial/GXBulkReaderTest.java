@@ -0,0 +1,277 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Compares blocking bulk transfers and queued requests using a simulated device.
+ * Time is simulated in 1 ms USB frames, so the results are deterministic.
+ */
+public class GXBulkReaderTest {
+    /**
+     * Simulated serial adapter. Device receives bytes from the serial line to its FIFO
+     * and sends them to the host in max packet size packets when an IN transfer is armed.
+     * Bytes that don't fit to the FIFO are lost.
+     */
+    private static final class FakeBulkIn implements IGXBulkIn {
+        private static final int PACKET_SIZE = 64;
+
+        /**
+         * Received bytes in one frame.
+         */
+        private final int mRate;
+
+        /**
+         * Device FIFO size.
+         */
+        private final int mFifoSize;
+
+        /**
+         * Short packet is sent when latency time is elapsed from the last sent packet.
+         */
+        private final int mLatency;
+
+        /**
+         * Device FIFO. Bytes are sequence numbers.
+         */
+        private final ArrayDeque<Byte> mFifo = new ArrayDeque<>();
+
+        /**
+         * Armed transfers.
+         */
+        private final ArrayDeque<Integer> mArmed = new ArrayDeque<>();
+
+        /**
+         * Completed transfers.
+         */
+        private final ArrayDeque<Integer> mCompleted = new ArrayDeque<>();
+
+        /**
+         * Buffers of the queued requests.
+         */
+        private final ByteBuffer[] mBuffers = new ByteBuffer[16];
+
+        /**
+         * Buffer of the blocking transfer. Null if blocking transfer is not armed.
+         */
+        private ByteBuffer mBlocking;
+        private long mNow;
+        private long mLastSent;
+        private int mSequence;
+        private long mProduced;
+        private long mLost;
+
+        FakeBulkIn(final int rate, final int fifoSize, final int latency) {
+            mRate = rate;
+            mFifoSize = fifoSize;
+            mLatency = latency;
+        }
+
+        /**
+         * Simulate given amount of frames.
+         *
+         * @param frames Amount of frames.
+         */
+        void advance(final int frames) {
+            for (int pos = 0; pos != frames; ++pos) {
+                ++mNow;
+                for (int b = 0; b != mRate; ++b) {
+                    ++mProduced;
+                    byte value = (byte) mSequence++;
+                    if (mFifo.size() == mFifoSize) {
+                        ++mLost;
+                    } else {
+                        mFifo.add(value);
+                    }
+                }
+                send();
+            }
+        }
+
+        /**
+         * Move data from the FIFO to the armed transfers.
+         */
+        private void send() {
+            while (!mFifo.isEmpty()) {
+                ByteBuffer head = head();
+                if (head == null) {
+                    break;
+                }
+                int count = Math.min(PACKET_SIZE, Math.min(head.remaining(), mFifo.size()));
+                if (count < PACKET_SIZE && mNow - mLastSent < mLatency) {
+                    //Short packet is sent when latency time is elapsed.
+                    break;
+                }
+                for (int pos = 0; pos != count; ++pos) {
+                    head.put(mFifo.poll());
+                }
+                mLastSent = mNow;
+                if (count < PACKET_SIZE || !head.hasRemaining()) {
+                    complete();
+                }
+            }
+        }
+
+        private ByteBuffer head() {
+            if (mBlocking != null) {
+                return mBlocking;
+            }
+            Integer index = mArmed.peekFirst();
+            return index == null ? null : mBuffers[index];
+        }
+
+        private void complete() {
+            if (mBlocking != null) {
+                mCompleted.add(-1);
+                mBlocking = null;
+            } else {
+                mCompleted.add(mArmed.pollFirst());
+            }
+        }
+
+        @Override
+        public int transfer(final byte[] buffer, final int length, final int timeout) {
+            ByteBuffer buff = ByteBuffer.wrap(buffer, 0, length);
+            mBlocking = buff;
+            send();
+            while (mCompleted.isEmpty()) {
+                advance(1);
+            }
+            mCompleted.clear();
+            return buff.position();
+        }
+
+        @Override
+        public boolean queue(final int request, final ByteBuffer buffer) {
+            mBuffers[request] = buffer;
+            mArmed.add(request);
+            return true;
+        }
+
+        @Override
+        public int waitRequest(final int timeout) {
+            while (mCompleted.isEmpty()) {
+                advance(1);
+            }
+            return mCompleted.poll();
+        }
+
+        @Override
+        public void close() {
+            mArmed.clear();
+        }
+    }
+
+    /**
+     * Result of the simulation.
+     */
+    private static final class Result {
+        private long mReceived;
+        private long mLost;
+        private long mProduced;
+        private boolean mOrdered = true;
+    }
+
+    /**
+     * Read data for the given time. Each read is handled in given time
+     * while the endpoint is not read.
+     *
+     * @param requestCount Amount of queued requests.
+     * @param handleTime   Time in milliseconds that handling of the read data takes.
+     * @param duration     Simulated time in milliseconds.
+     * @return Simulation result.
+     */
+    private static Result run(final int requestCount, final int handleTime, final int duration) {
+        FakeBulkIn device = new FakeBulkIn(92, 384, 2);
+        GXBulkReader reader = new GXBulkReader(device, 512, requestCount);
+        reader.start();
+        Result ret = new Result();
+        byte expected = 0;
+        while (device.mNow < duration) {
+            int len = reader.read(200);
+            if (len > 0) {
+                byte[] data = reader.getData();
+                for (int pos = 0; pos != len; ++pos) {
+                    if (data[pos] != expected) {
+                        ret.mOrdered = false;
+                        expected = data[pos];
+                    }
+                    ++expected;
+                }
+                ret.mReceived += len;
+            }
+            device.advance(handleTime);
+        }
+        reader.close();
+        ret.mLost = device.mLost;
+        ret.mProduced = device.mProduced;
+        return ret;
+    }
+
+    @Test
+    public void blockingLoopLosesDataWhenHandlingIsSlow() {
+        //921600 baud is about 92 bytes in 1 ms frame.
+        Result ret = run(1, 5, 10000);
+        assertTrue("Blocking loop should overflow device FIFO.", ret.mLost > 0);
+        assertTrue(ret.mReceived < ret.mProduced);
+    }
+
+    @Test
+    public void queuedRequestsKeepUp() {
+        Result ret = run(4, 5, 10000);
+        assertEquals(0, ret.mLost);
+        assertTrue("Received data is not in order.", ret.mOrdered);
+        //Only data that is still in the device FIFO or in armed requests is not received.
+        assertTrue(ret.mProduced - ret.mReceived < 4 * 512 + 384);
+    }
+
+    @Test
+    public void queuedRequestsThroughput() {
+        Result blocking = run(1, 5, 10000);
+        Result queued = run(4, 5, 10000);
+        System.out.println("Bulk IN 921600 baud, 5 ms handling: blocking " + blocking.mReceived / 10
+                + " B/s lost " + blocking.mLost + " B, queued " + queued.mReceived / 10
+                + " B/s lost " + queued.mLost + " B.");
+        assertTrue(queued.mReceived > blocking.mReceived);
+    }
+}
@@ -0,0 +1,105 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * CH34x baud rate divisor tests.
+ */
+public class GXCh34xTest {
+
+    private static void check(final int baudRate, final boolean limited,
+                              final int expected, final int expectedActual) throws IOException {
+        int[] actual = new int[1];
+        assertEquals("Baud rate " + baudRate, expected,
+                GXCh34x.getBaudRateDivisor(baudRate, limited, actual));
+        assertEquals("Baud rate " + baudRate, expectedActual, actual[0]);
+    }
+
+    @Test
+    public void vendorTableValues() throws IOException {
+        //Values that vendor driver uses.
+        check(2400, false, 0xd901, 2403);
+        check(4800, false, 0x6402, 4807);
+        check(9600, false, 0xb202, 9615);
+        check(19200, false, 0xd902, 19230);
+        check(38400, false, 0x6403, 38461);
+        check(115200, false, 0xcc03, 115384);
+    }
+
+    @Test
+    public void highAndLowBaudRates() throws IOException {
+        check(50, false, 0x1600, 50);
+        check(921600, false, 0xf307, 923076);
+        check(2000000, false, 0xfd03, 2000000);
+    }
+
+    @Test
+    public void limitedPrescaler() throws IOException {
+        //Lower base clock is used when prescaler is less than 3.
+        check(128, false, 0x4904, 128);
+        check(128, true, 0xa400, 127);
+        check(107, true, 0x9200, 106);
+        //Prescaler 3 is not affected.
+        check(115200, true, 0xcc03, 115384);
+    }
+
+    @Test
+    public void invalidBaudRates() {
+        int[] actual = new int[1];
+        assertThrows(IOException.class, () -> GXCh34x.getBaudRateDivisor(40, false, actual));
+        assertThrows(IOException.class, () -> GXCh34x.getBaudRateDivisor(3000001, false, actual));
+    }
+
+    @Test
+    public void oldChipTimeouts() {
+        assertEquals(0x38, GXCh34x.getOldTimeout(2400));
+        assertEquals(0x38, GXCh34x.getOldTimeout(300));
+        assertEquals(0x1F, GXCh34x.getOldTimeout(4800));
+        assertEquals(0x13, GXCh34x.getOldTimeout(9600));
+        assertEquals(0x13, GXCh34x.getOldTimeout(14400));
+        assertEquals(0x0D, GXCh34x.getOldTimeout(19200));
+        assertEquals(0x0A, GXCh34x.getOldTimeout(38400));
+        assertEquals(0x08, GXCh34x.getOldTimeout(115200));
+        assertEquals(0x08, GXCh34x.getOldTimeout(921600));
+    }
+}
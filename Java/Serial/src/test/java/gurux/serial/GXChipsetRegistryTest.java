@@ -0,0 +1,182 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import gurux.serial.enums.Chipset;
+
+/**
+ * Chipset registry tests. Tests remove the IDs that they register.
+ */
+public class GXChipsetRegistryTest {
+    /**
+     * Vendor ID that is not used by built-in chipsets.
+     */
+    private static final int VENDOR = 0xFFF0;
+
+    private static Chipset find(final int id) {
+        return GXChipsetRegistry.find(null, id >>> 16, id & 0xFFFF);
+    }
+
+    private static boolean contains(final int[] ids, final int id) {
+        for (int it : ids) {
+            if (it == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void builtInIds() {
+        for (int it : GXCP21xx.IDS) {
+            assertEquals(Chipset.CP21XX, find(it));
+        }
+        for (int it : GXProfilic.IDS) {
+            if (!contains(GXCP21xx.IDS, it)) {
+                assertEquals(Chipset.PROFILIC, find(it));
+            }
+        }
+        for (int it : GXFtdi.IDS) {
+            if (!contains(GXCP21xx.IDS, it) && !contains(GXProfilic.IDS, it)) {
+                assertEquals(Chipset.FTDI, find(it));
+            }
+        }
+    }
+
+    @Test
+    public void unknownDevice() {
+        assertNull(GXChipsetRegistry.find(null, VENDOR, 1));
+        assertNull(GXChipsetRegistry.find("Unknown", VENDOR, 1));
+    }
+
+    @Test
+    public void manufacturerAndVendor() {
+        assertEquals(Chipset.FTDI, GXChipsetRegistry.find("ftdi", VENDOR, 1));
+        assertEquals(Chipset.CH34X, GXChipsetRegistry.find(null, GXCh34x.VENDOR, 0x7523));
+        //Manufacturer is checked before vendor ID.
+        assertEquals(Chipset.FTDI, GXChipsetRegistry.find("FTDI", GXCh34x.VENDOR, 0x7523));
+    }
+
+    @Test
+    public void registerAndUnregister() {
+        try {
+            GXChipsetRegistry.register(VENDOR, 1, Chipset.CP21XX);
+            assertEquals(Chipset.CP21XX, GXChipsetRegistry.find(null, VENDOR, 1));
+            //Product ID is preferred over manufacturer.
+            assertEquals(Chipset.CP21XX, GXChipsetRegistry.find("FTDI", VENDOR, 1));
+            GXChipsetRegistry.register(VENDOR, 1, Chipset.PROFILIC);
+            assertEquals(Chipset.PROFILIC, GXChipsetRegistry.find(null, VENDOR, 1));
+            assertNull(GXChipsetRegistry.find(null, VENDOR, 2));
+        } finally {
+            GXChipsetRegistry.unregister(VENDOR, 1);
+        }
+        assertNull(GXChipsetRegistry.find(null, VENDOR, 1));
+    }
+
+    @Test
+    public void overrideBuiltIn() {
+        int id = GXFtdi.IDS[0];
+        Chipset old = find(id);
+        try {
+            GXChipsetRegistry.register(id >>> 16, id & 0xFFFF, Chipset.CH34X);
+            assertEquals(Chipset.CH34X, find(id));
+        } finally {
+            GXChipsetRegistry.register(id >>> 16, id & 0xFFFF, old);
+        }
+        assertEquals(old, find(id));
+    }
+
+    @Test
+    public void collisions() {
+        //Registry grows and colliding keys are found after other keys are removed.
+        final int count = 1000;
+        try {
+            for (int pos = 0; pos != count; ++pos) {
+                GXChipsetRegistry.register(VENDOR, pos, Chipset.values()[1 + pos % 4]);
+            }
+            //Zero key is not mixed with an empty slot.
+            GXChipsetRegistry.register(0, 0, Chipset.CDC_ACM);
+            for (int pos = 0; pos != count; ++pos) {
+                assertEquals(Chipset.values()[1 + pos % 4],
+                        GXChipsetRegistry.find(null, VENDOR, pos));
+            }
+            assertEquals(Chipset.CDC_ACM, GXChipsetRegistry.find(null, 0, 0));
+            for (int pos = 0; pos < count; pos += 2) {
+                GXChipsetRegistry.unregister(VENDOR, pos);
+            }
+            for (int pos = 0; pos != count; ++pos) {
+                if (pos % 2 == 0) {
+                    assertNull(GXChipsetRegistry.find(null, VENDOR, pos));
+                } else {
+                    assertEquals(Chipset.values()[1 + pos % 4],
+                            GXChipsetRegistry.find(null, VENDOR, pos));
+                }
+            }
+        } finally {
+            for (int pos = 0; pos != count; ++pos) {
+                GXChipsetRegistry.unregister(VENDOR, pos);
+            }
+            GXChipsetRegistry.unregister(0, 0);
+        }
+        assertEquals(Chipset.CP21XX, find(GXCP21xx.IDS[0]));
+    }
+
+    @Test
+    public void registerVendor() {
+        try {
+            GXChipsetRegistry.registerVendor(VENDOR, Chipset.PROFILIC);
+            assertEquals(Chipset.PROFILIC, GXChipsetRegistry.find(null, VENDOR, 0x1234));
+        } finally {
+            GXChipsetRegistry.registerVendor(VENDOR, null);
+        }
+        assertNull(GXChipsetRegistry.find(null, VENDOR, 0x1234));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidChipset() {
+        GXChipsetRegistry.register(VENDOR, 1, Chipset.NONE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidManufacturer() {
+        GXChipsetRegistry.registerManufacturer("", Chipset.FTDI);
+    }
+}
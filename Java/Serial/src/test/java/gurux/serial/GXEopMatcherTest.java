@@ -0,0 +1,124 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * End of packet matcher tests.
+ */
+public class GXEopMatcherTest {
+
+    @Test
+    public void noEop() {
+        assertNull(GXEopMatcher.compile(null));
+        assertNull(GXEopMatcher.compile(new Object[0]));
+    }
+
+    @Test
+    public void singleByte() {
+        GXEopMatcher target = GXEopMatcher.compile((byte) 0x7E);
+        byte[] data = {1, 2, 0x7E, 3, 0x7E};
+        assertEquals(2, target.match(data, 0, data.length));
+        assertEquals(4, target.match(data, 3, 2));
+        assertEquals(-1, target.match(data, 0, 2));
+    }
+
+    @Test
+    public void severalSingleBytes() {
+        GXEopMatcher target = GXEopMatcher.compile(new Object[]{(byte) 0x0A, (byte) 0x0D});
+        byte[] data = {1, 0x0D, 0x0A};
+        assertEquals(1, target.match(data, 0, data.length));
+        assertEquals(2, target.match(data, 2, 1));
+    }
+
+    @Test
+    public void pattern() {
+        GXEopMatcher target = GXEopMatcher.compile(new byte[]{0x0D, 0x0A});
+        byte[] data = {'O', 'K', 0x0D, 0x0A, 'X', 0x0A};
+        assertEquals(3, target.match(data, 0, data.length));
+        //Single line feed is not end of packet.
+        assertEquals(-1, target.match(data, 4, 2));
+    }
+
+    @Test
+    public void patternSplitAcrossChunks() {
+        GXEopMatcher target = GXEopMatcher.compile(new byte[]{1, 2, 3});
+        byte[] first = {9, 9, 1};
+        byte[] second = {2};
+        byte[] third = {3, 9};
+        assertEquals(-1, target.match(first, 0, first.length));
+        assertEquals(-1, target.match(second, 0, second.length));
+        assertEquals(0, target.match(third, 0, third.length));
+    }
+
+    @Test
+    public void overlappingPatterns() {
+        //Failure transitions find pattern that starts inside the other pattern.
+        GXEopMatcher target = GXEopMatcher.compile(new Object[]{new byte[]{1, 2, 3, 4}, new byte[]{2, 3, 5}});
+        byte[] data = {1, 2, 3, 5};
+        assertEquals(3, target.match(data, 0, data.length));
+        byte[] first = {1, 1, 2};
+        byte[] second = {3, 4};
+        assertEquals(-1, target.match(first, 0, first.length));
+        assertEquals(1, target.match(second, 0, second.length));
+    }
+
+    @Test
+    public void matchStartsFromBeginningAfterMatch() {
+        GXEopMatcher target = GXEopMatcher.compile(new byte[]{7, 7});
+        byte[] data = {7, 7, 7, 1, 7, 7};
+        assertEquals(1, target.match(data, 0, data.length));
+        //Last byte of the previous packet is not part of the next end of packet.
+        assertEquals(-1, target.match(data, 2, 2));
+        assertEquals(5, target.match(data, 4, 2));
+    }
+
+    @Test
+    public void resetClearsPartialMatch() {
+        GXEopMatcher target = GXEopMatcher.compile("\r\n");
+        byte[] first = {'A', '\r'};
+        byte[] second = {'\n'};
+        assertEquals(-1, target.match(first, 0, first.length));
+        target.reset();
+        assertEquals(-1, target.match(second, 0, second.length));
+        byte[] data = {'\r', '\n'};
+        assertEquals(1, target.match(data, 0, data.length));
+    }
+}
@@ -0,0 +1,156 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import gurux.serial.enums.OverflowPolicy;
+
+/**
+ * Executor dispatcher overflow tests.
+ */
+public class GXExecutorDispatcherTest {
+    /**
+     * Delivered tasks in delivery order.
+     */
+    private final List<String> mDelivered = new ArrayList<>();
+
+    /**
+     * Dropped events.
+     */
+    private final List<String> mDropped = new ArrayList<>();
+
+    /**
+     * Scheduled delivery tasks.
+     */
+    private final List<Runnable> mScheduled = new ArrayList<>();
+
+    private Runnable control(final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                mDelivered.add(name);
+            }
+        };
+    }
+
+    private Runnable data(final String name) {
+        return new GXDispatcher.Event() {
+            @Override
+            public void run() {
+                mDelivered.add(name);
+            }
+
+            @Override
+            public boolean merge(final Runnable next) {
+                return false;
+            }
+
+            @Override
+            public void dropped() {
+                mDropped.add(name);
+            }
+        };
+    }
+
+    private GXExecutorDispatcher create(final OverflowPolicy policy) {
+        return new GXExecutorDispatcher(mScheduled::add, 2, policy);
+    }
+
+    private void deliver() {
+        for (Runnable it : mScheduled) {
+            it.run();
+        }
+        mScheduled.clear();
+    }
+
+    @Test
+    public void controlEventsAreNeverDropped() {
+        GXExecutorDispatcher target = create(OverflowPolicy.DROP_NEWEST);
+        target.post(control("open"));
+        target.post(control("port"));
+        target.post(control("error"));
+        target.post(data("data"));
+        deliver();
+        assertEquals(3, mDelivered.size());
+        assertEquals("error", mDelivered.get(2));
+        assertEquals(1, mDropped.size());
+        assertEquals(1, target.getDropped());
+    }
+
+    @Test
+    public void dropOldestKeepsControlEvents() {
+        GXExecutorDispatcher target = create(OverflowPolicy.DROP_OLDEST);
+        target.post(control("error"));
+        target.post(data("data1"));
+        target.post(data("data2"));
+        target.post(control("property"));
+        deliver();
+        assertEquals("data1", mDropped.get(0));
+        assertEquals(3, mDelivered.size());
+        assertEquals("error", mDelivered.get(0));
+        assertEquals("data2", mDelivered.get(1));
+        assertEquals("property", mDelivered.get(2));
+    }
+
+    @Test
+    public void dropOldestWithOnlyControlEvents() {
+        GXExecutorDispatcher target = create(OverflowPolicy.DROP_OLDEST);
+        target.post(control("error1"));
+        target.post(control("error2"));
+        target.post(data("data"));
+        deliver();
+        assertEquals("data", mDropped.get(0));
+        assertEquals(2, mDelivered.size());
+    }
+
+    @Test
+    public void blockDoesNotBlockControlEvents() {
+        GXExecutorDispatcher target = create(OverflowPolicy.BLOCK);
+        target.post(data("data1"));
+        target.post(data("data2"));
+        //Queue is full, but control event is queued without waiting.
+        target.post(control("error"));
+        deliver();
+        assertEquals(3, mDelivered.size());
+        assertEquals(0, mDropped.size());
+    }
+}
@@ -0,0 +1,182 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * FTDI baud rate divisor and status header tests.
+ */
+public class GXFtdiTest {
+
+    @Test
+    public void clockBits9600() {
+        int[] divisor = new int[1];
+        assertEquals(9600, GXFtdi.toClockBits(9600, 48000000, 16, divisor));
+        assertEquals(0x4138, divisor[0]);
+    }
+
+    @Test
+    public void clockBitsAM9600() {
+        int[] divisor = new int[1];
+        assertEquals(9600, GXFtdi.toClockBitsAM(9600, divisor));
+        assertEquals(0x4138, divisor[0]);
+    }
+
+    @Test
+    public void clockBitsAM3000000() {
+        int[] divisor = new int[1];
+        assertEquals(3000000, GXFtdi.toClockBitsAM(3000000, divisor));
+        assertEquals(0, divisor[0]);
+    }
+
+    @Test
+    public void clockBitsSubInteger() {
+        int[] divisor = new int[1];
+        assertEquals(3000000, GXFtdi.toClockBits(3000000, 48000000, 16, divisor));
+        assertEquals(0, divisor[0]);
+        assertEquals(2000000, GXFtdi.toClockBits(2000000, 48000000, 16, divisor));
+        assertEquals(1, divisor[0]);
+        assertEquals(1500000, GXFtdi.toClockBits(1500000, 48000000, 16, divisor));
+        assertEquals(2, divisor[0]);
+    }
+
+    @Test
+    public void divisor14400BM() {
+        int[] divisor = new int[1];
+        assertEquals(14397, GXFtdi.getBaudRateDivisor(14400, GXFtdi.TYPE_BM, divisor));
+        assertEquals(0x100D0, divisor[0]);
+    }
+
+    @Test
+    public void divisor14400H() {
+        int[] divisor = new int[1];
+        assertEquals(14399, GXFtdi.getBaudRateDivisor(14400, GXFtdi.TYPE_232H, divisor));
+        assertEquals(0x30341, divisor[0]);
+    }
+
+    @Test
+    public void divisor921600BM() {
+        int[] divisor = new int[1];
+        assertEquals(923077, GXFtdi.getBaudRateDivisor(921600, GXFtdi.TYPE_BM, divisor));
+        assertEquals(0x8003, divisor[0]);
+    }
+
+    @Test
+    public void divisor921600H() {
+        int[] divisor = new int[1];
+        assertEquals(923077, GXFtdi.getBaudRateDivisor(921600, GXFtdi.TYPE_2232H, divisor));
+        //120 MHz clock is used.
+        assertEquals(0x2000D, divisor[0]);
+    }
+
+    @Test
+    public void rejectTooLargeError() {
+        int[] divisor = new int[1];
+        //Nearest achievable baud rate is 2000000.
+        assertThrows(RuntimeException.class,
+                () -> GXFtdi.getBaudRateDivisor(2700000, GXFtdi.TYPE_BM, divisor));
+        //Divisor is limited to 17 bits.
+        assertThrows(RuntimeException.class,
+                () -> GXFtdi.getBaudRateDivisor(100, GXFtdi.TYPE_BM, divisor));
+        assertThrows(RuntimeException.class,
+                () -> GXFtdi.getBaudRateDivisor(0, GXFtdi.TYPE_BM, divisor));
+    }
+
+    @Test
+    public void baudRateIndex() {
+        //High byte of the divisor is moved to the index with H chips.
+        assertEquals(0x0301, GXFtdi.getBaudRateIndex(0x30341, GXFtdi.TYPE_232H, 1));
+        assertEquals(0x0202, GXFtdi.getBaudRateIndex(0x2000D, GXFtdi.TYPE_4232H, 2));
+        assertEquals(0x0101, GXFtdi.getBaudRateIndex(0x100D0, GXFtdi.TYPE_2232C, 1));
+        assertEquals(1, GXFtdi.getBaudRateIndex(0x100D0, GXFtdi.TYPE_BM, 1));
+        assertEquals(0, GXFtdi.getBaudRateIndex(0x4138, GXFtdi.TYPE_R, 1));
+    }
+
+    @Test
+    public void removeStatusMultiplePackets() {
+        GXFtdi target = new GXFtdi();
+        //Three 8 byte packets. Last packet is short.
+        byte[] data = {0x11, 0x60, 1, 2, 3, 4, 5, 6,
+                0x11, 0x60, 7, 8, 9, 10, 11, 12,
+                0x11, 0x60, 13, 14};
+        assertEquals(14, target.removeStatus(data, data.length, 8));
+        byte[] expected = new byte[14];
+        for (int pos = 0; pos != expected.length; ++pos) {
+            expected[pos] = (byte) (pos + 1);
+        }
+        assertArrayEquals(expected, Arrays.copyOf(data, 14));
+        assertEquals(0, target.getOverrunErrors());
+    }
+
+    @Test
+    public void removeStatusOnlyHeaders() {
+        GXFtdi target = new GXFtdi();
+        //Device sends status packets without data when nothing is received.
+        byte[] data = {0x31, 0x60, 0x31, 0x60};
+        assertEquals(0, target.removeStatus(data, data.length, 2));
+        assertEquals(GXChipset.MODEM_STATUS_CTS | GXChipset.MODEM_STATUS_DSR,
+                target.getModemStatus());
+    }
+
+    @Test
+    public void removeStatusLineErrors() {
+        GXFtdi target = new GXFtdi();
+        byte[] data = {(byte) 0xF1, 0x62, 1, 2, 0x01, 0x6C, 3, 4, 0x01, 0x70, 5};
+        assertEquals(5, target.removeStatus(data, data.length, 4));
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, Arrays.copyOf(data, 5));
+        assertEquals(1, target.getOverrunErrors());
+        assertEquals(1, target.getParityErrors());
+        assertEquals(1, target.getFramingErrors());
+        assertEquals(1, target.getBreakInterrupts());
+        //Modem status is taken from the last packet.
+        assertEquals(0, target.getModemStatus());
+    }
+
+    @Test
+    public void removeStatusTruncatedHeader() {
+        GXFtdi target = new GXFtdi();
+        //Last packet is too short to contain a status header.
+        byte[] data = {0x01, 0x60, 1, 2, 0x01};
+        assertEquals(2, target.removeStatus(data, data.length, 4));
+    }
+}
@@ -0,0 +1,102 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Port registry tests.
+ */
+public class GXPortRegistryTest {
+
+    private static GXPort createPort(final String name) {
+        GXPort port = new GXPort();
+        port.setPort(name);
+        port.setProduct("Product");
+        port.setRawDescriptors(new byte[]{1, 2});
+        return port;
+    }
+
+    @Test
+    public void addedPortIsCopied() {
+        GXPortRegistry target = new GXPortRegistry();
+        GXPort port = createPort("/dev/bus/usb/001/002");
+        assertTrue(target.add(port));
+        assertFalse(target.add(createPort("/dev/bus/usb/001/002")));
+        port.setPort("/dev/bus/usb/001/003");
+        port.setProduct("Changed");
+        port.getRawDescriptors()[0] = 0;
+        GXPort[] ports = target.getPorts();
+        assertEquals(1, ports.length);
+        assertEquals("/dev/bus/usb/001/002", ports[0].getPort());
+        assertEquals("Product", ports[0].getProduct());
+        assertArrayEquals(new byte[]{1, 2}, ports[0].getRawDescriptors());
+    }
+
+    @Test
+    public void returnedPortsAreCopied() {
+        GXPortRegistry target = new GXPortRegistry();
+        target.add(createPort("/dev/bus/usb/001/002"));
+        GXPort[] ports = target.getPorts();
+        ports[0].setPort("/dev/bus/usb/001/003");
+        ports[0].setProduct("Changed");
+        ports[0].getRawDescriptors()[0] = 0;
+        ports[0] = null;
+        GXPort[] tmp = target.getPorts();
+        assertNotSame(ports, tmp);
+        assertTrue(target.contains("/dev/bus/usb/001/002"));
+        assertFalse(target.contains("/dev/bus/usb/001/003"));
+        assertEquals("Product", tmp[0].getProduct());
+        assertArrayEquals(new byte[]{1, 2}, tmp[0].getRawDescriptors());
+    }
+
+    @Test
+    public void remove() {
+        GXPortRegistry target = new GXPortRegistry();
+        target.add(createPort("a"));
+        target.add(createPort("b"));
+        int[] index = new int[1];
+        assertEquals("b", target.remove("b", index).getPort());
+        assertEquals(1, index[0]);
+        assertEquals(1, target.getPorts().length);
+    }
+}
@@ -0,0 +1,116 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Receive buffer and buffer pool tests.
+ */
+public class GXReceiveBufferTest {
+
+    @Test
+    public void bufferIsReusedAfterDelivery() {
+        GXReceiveBufferPool pool = new GXReceiveBufferPool(64);
+        GXReceiveBuffer buff = pool.acquire(10);
+        List<Integer> sizes = new ArrayList<>();
+        IGXReceiveBufferListener listener = (sender, buffer) -> sizes.add(buffer.getSize());
+        buff.retain();
+        buff.retain();
+        GXDispatcher.Event event = buff.prepare(null, new IGXReceiveBufferListener[]{listener, listener});
+        buff.release();
+        event.run();
+        assertEquals(2, sizes.size());
+        //Buffer is returned to the pool when the last listener returns.
+        assertSame(buff, pool.acquire(5));
+    }
+
+    @Test
+    public void failingListenerDoesNotStopDelivery() {
+        GXReceiveBufferPool pool = new GXReceiveBufferPool(64);
+        GXReceiveBuffer buff = pool.acquire(10);
+        List<Integer> sizes = new ArrayList<>();
+        IGXReceiveBufferListener failing = (sender, buffer) -> {
+            throw new IllegalStateException("Listener failed.");
+        };
+        IGXReceiveBufferListener listener = (sender, buffer) -> sizes.add(buffer.getSize());
+        buff.retain();
+        buff.retain();
+        GXDispatcher.Event event = buff.prepare(null, new IGXReceiveBufferListener[]{failing, listener});
+        buff.release();
+        assertThrows(IllegalStateException.class, event::run);
+        assertEquals(1, sizes.size());
+        assertSame(buff, pool.acquire(5));
+    }
+
+    @Test
+    public void listenerCanRetainBuffer() {
+        GXReceiveBufferPool pool = new GXReceiveBufferPool(64);
+        GXReceiveBuffer buff = pool.acquire(10);
+        List<GXReceiveBuffer> kept = new ArrayList<>();
+        IGXReceiveBufferListener listener = (sender, buffer) -> kept.add(buffer.retain());
+        buff.retain();
+        GXDispatcher.Event event = buff.prepare(null, new IGXReceiveBufferListener[]{listener});
+        buff.release();
+        event.run();
+        GXReceiveBuffer other = pool.acquire(5);
+        assertNotSame(buff, other);
+        kept.get(0).release();
+        assertThrows(IllegalStateException.class, buff::release);
+    }
+
+    @Test
+    public void droppedEventReleasesReferences() {
+        GXReceiveBufferPool pool = new GXReceiveBufferPool(64);
+        GXReceiveBuffer buff = pool.acquire(10);
+        IGXReceiveBufferListener listener = (sender, buffer) -> {
+        };
+        buff.retain();
+        buff.retain();
+        GXDispatcher.Event event = buff.prepare(null, new IGXReceiveBufferListener[]{listener, listener});
+        buff.release();
+        event.dropped();
+        assertSame(buff, pool.acquire(5));
+    }
+}
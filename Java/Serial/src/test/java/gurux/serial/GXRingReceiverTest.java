@@ -0,0 +1,206 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import gurux.common.ReceiveParameters;
+
+/**
+ * Lock-free ring receiver tests.
+ */
+public class GXRingReceiverTest {
+
+    private static ReceiveParameters<byte[]> count(final int count) {
+        ReceiveParameters<byte[]> p = new ReceiveParameters<byte[]>(byte[].class);
+        p.setCount(count);
+        p.setWaitTime(100);
+        return p;
+    }
+
+    private static ReceiveParameters<byte[]> eop(final Object eop) {
+        ReceiveParameters<byte[]> p = new ReceiveParameters<byte[]>(byte[].class);
+        p.setEop(eop);
+        p.setWaitTime(100);
+        return p;
+    }
+
+    private static byte[] range(final int start, final int count) {
+        byte[] data = new byte[count];
+        for (int pos = 0; pos != count; ++pos) {
+            data[pos] = (byte) (start + pos);
+        }
+        return data;
+    }
+
+    @Test
+    public void capacity() {
+        assertEquals(16, new GXRingReceiver(1).getCapacity());
+        assertEquals(64, new GXRingReceiver(64).getCapacity());
+        assertEquals(128, new GXRingReceiver(65).getCapacity());
+    }
+
+    @Test
+    public void fullBuffer() {
+        GXRingReceiver target = new GXRingReceiver(16);
+        assertEquals(10, target.write(range(0, 10), 0, 10));
+        assertEquals(6, target.write(range(10, 10), 0, 10));
+        assertEquals(0, target.write(range(0, 1), 0, 1));
+        ReceiveParameters<byte[]> p = count(4);
+        assertTrue(target.receive(p));
+        assertArrayEquals(range(0, 4), p.getReply());
+        assertEquals(4, target.write(range(16, 10), 0, 10));
+    }
+
+    @Test
+    public void countWrapsAround() {
+        GXRingReceiver target = new GXRingReceiver(16);
+        int next = 0;
+        for (int round = 0; round != 10; ++round) {
+            target.write(range(next, 7), 0, 7);
+            ReceiveParameters<byte[]> p = count(7);
+            assertTrue(target.receive(p));
+            assertArrayEquals(range(next, 7), p.getReply());
+            next += 7;
+        }
+    }
+
+    @Test
+    public void eopWrapsAround() {
+        GXRingReceiver target = new GXRingReceiver(16);
+        byte[] skip = new byte[12];
+        target.write(skip, 0, skip.length);
+        assertTrue(target.receive(count(12)));
+        //End of packet is split between end and beginning of the ring buffer.
+        byte[] data = {1, 2, 3, 0x0D, 0x0A, 5};
+        target.write(data, 0, data.length);
+        ReceiveParameters<byte[]> p = eop(new byte[]{0x0D, 0x0A});
+        assertTrue(target.receive(p));
+        assertArrayEquals(new byte[]{1, 2, 3, 0x0D, 0x0A}, p.getReply());
+        p = count(1);
+        assertTrue(target.receive(p));
+        assertArrayEquals(new byte[]{5}, p.getReply());
+    }
+
+    @Test
+    public void peek() {
+        GXRingReceiver target = new GXRingReceiver(16);
+        target.write(range(0, 5), 0, 5);
+        ReceiveParameters<byte[]> p = count(3);
+        p.setPeek(true);
+        assertTrue(target.receive(p));
+        p = count(5);
+        assertTrue(target.receive(p));
+        assertArrayEquals(range(0, 5), p.getReply());
+    }
+
+    @Test
+    public void timeout() {
+        GXRingReceiver target = new GXRingReceiver(16);
+        target.write(range(0, 2), 0, 2);
+        assertFalse(target.receive(count(3)));
+        assertFalse(target.receive(eop((byte) 0x7E)));
+    }
+
+    @Test
+    public void resetRemovesData() {
+        GXRingReceiver target = new GXRingReceiver(16);
+        target.write(range(0, 10), 0, 10);
+        target.reset();
+        //Removed data can be overwritten before the reset is applied.
+        assertEquals(16, target.write(range(20, 16), 0, 16));
+        ReceiveParameters<byte[]> p = count(16);
+        assertTrue(target.receive(p));
+        assertArrayEquals(range(20, 16), p.getReply());
+    }
+
+    @Test
+    public void resetPosition() {
+        GXRingReceiver target = new GXRingReceiver(16);
+        byte[] data = {1, 0x7E, 2};
+        target.write(data, 0, data.length);
+        //Searched data is scanned again when end of packet changes.
+        assertFalse(target.receive(eop((byte) 0x55)));
+        target.resetPosition();
+        ReceiveParameters<byte[]> p = eop((byte) 0x7E);
+        assertTrue(target.receive(p));
+        assertArrayEquals(new byte[]{1, 0x7E}, p.getReply());
+    }
+
+    @Test
+    public void resetWhileWaiting() throws InterruptedException {
+        final GXRingReceiver target = new GXRingReceiver(16);
+        target.write(new byte[]{1, 2}, 0, 2);
+        final ReceiveParameters<byte[]> p = eop((byte) 0x7E);
+        p.setWaitTime(5000);
+        final boolean[] ret = new boolean[1];
+        Thread waiter = new Thread(() -> ret[0] = target.receive(p));
+        waiter.start();
+        Thread.sleep(20);
+        //Waiting thread removes the data that was received before the reset.
+        target.reset();
+        target.write(new byte[]{3, 0x7E}, 0, 2);
+        waiter.join(5000);
+        assertTrue(ret[0]);
+        assertArrayEquals(new byte[]{3, 0x7E}, p.getReply());
+        target.write(new byte[]{4, 0x7E}, 0, 2);
+        target.reset();
+        target.write(new byte[]{5, 0x7E}, 0, 2);
+        ReceiveParameters<byte[]> next = eop((byte) 0x7E);
+        assertTrue(target.receive(next));
+        assertArrayEquals(new byte[]{5, 0x7E}, next.getReply());
+    }
+
+    @Test
+    public void closeWakesWaiter() throws InterruptedException {
+        final GXRingReceiver target = new GXRingReceiver(16);
+        final ReceiveParameters<byte[]> p = count(1);
+        p.setWaitTime(0);
+        final boolean[] ret = {true};
+        Thread waiter = new Thread(() -> ret[0] = target.receive(p));
+        waiter.start();
+        Thread.sleep(20);
+        target.close();
+        waiter.join(5000);
+        assertFalse(waiter.isAlive());
+        assertFalse(ret[0]);
+    }
+}
@@ -0,0 +1,121 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Tests how remaining bytes of the send buffers are resolved.
+ */
+public class GXSendBufferTest {
+    private static final byte[] DATA = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+    @Test
+    public void heapBufferIsNotCopied() {
+        ByteBuffer buff = ByteBuffer.wrap(DATA);
+        buff.position(2);
+        buff.limit(7);
+        int[] offset = new int[1];
+        byte[] send = new byte[16];
+        byte[] ret = GXSerial.getArray(buff, send, offset);
+        assertSame(DATA, ret);
+        assertEquals(2, offset[0]);
+        assertEquals(7, buff.position());
+        assertEquals(7, buff.limit());
+    }
+
+    @Test
+    public void slicedHeapBuffer() {
+        ByteBuffer tmp = ByteBuffer.wrap(DATA);
+        tmp.position(3);
+        ByteBuffer buff = tmp.slice();
+        buff.position(1);
+        buff.limit(4);
+        int[] offset = new int[1];
+        byte[] ret = GXSerial.getArray(buff, new byte[16], offset);
+        assertSame(DATA, ret);
+        //Array offset of the slice is added to the position.
+        assertEquals(4, offset[0]);
+        assertArrayEquals(new byte[]{4, 5, 6}, Arrays.copyOfRange(ret, offset[0], offset[0] + 3));
+        assertEquals(4, buff.position());
+    }
+
+    @Test
+    public void directBufferIsCopied() {
+        ByteBuffer buff = ByteBuffer.allocateDirect(DATA.length);
+        buff.put(DATA);
+        buff.position(5);
+        buff.limit(9);
+        int[] offset = new int[]{-1};
+        byte[] send = new byte[4];
+        byte[] ret = GXSerial.getArray(buff, send, offset);
+        assertSame(send, ret);
+        assertEquals(0, offset[0]);
+        assertArrayEquals(new byte[]{5, 6, 7, 8}, send);
+        assertEquals(9, buff.position());
+        assertEquals(9, buff.limit());
+    }
+
+    @Test
+    public void readOnlyBufferIsCopied() {
+        ByteBuffer buff = ByteBuffer.wrap(DATA).asReadOnlyBuffer();
+        buff.position(8);
+        int[] offset = new int[1];
+        byte[] send = new byte[2];
+        byte[] ret = GXSerial.getArray(buff, send, offset);
+        assertNotSame(DATA, ret);
+        assertArrayEquals(new byte[]{8, 9}, send);
+        assertEquals(10, buff.position());
+    }
+
+    @Test
+    public void emptyBuffer() {
+        ByteBuffer buff = ByteBuffer.allocateDirect(4);
+        buff.position(4);
+        int[] offset = new int[1];
+        GXSerial.getArray(buff, new byte[0], offset);
+        assertEquals(0, offset[0]);
+        assertEquals(4, buff.position());
+    }
+}
@@ -0,0 +1,158 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial.decoders;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import gurux.serial.IGXFrameDecoder;
+
+/**
+ * Splits received chunks to frames the same way as the receive thread.
+ */
+final class GXFrameCollector {
+    /**
+     * Frame decoder.
+     */
+    private final IGXFrameDecoder mDecoder;
+
+    /**
+     * Collected data.
+     */
+    private final byte[] mBuffer = new byte[1024];
+
+    /**
+     * Amount of collected bytes.
+     */
+    private int mSize;
+
+    /**
+     * Decoded frames.
+     */
+    private final List<byte[]> mFrames = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param decoder Frame decoder.
+     */
+    GXFrameCollector(final IGXFrameDecoder decoder) {
+        mDecoder = decoder;
+    }
+
+    /**
+     * Add received chunk.
+     *
+     * @param data Received data.
+     * @return This collector.
+     */
+    GXFrameCollector add(final byte[] data) {
+        System.arraycopy(data, 0, mBuffer, mSize, data.length);
+        mSize += data.length;
+        int start = 0;
+        while (start != mSize) {
+            int ret = mDecoder.getFrameLength(mBuffer, start, mSize - start);
+            if (ret < 0) {
+                start += Math.min(-ret, mSize - start);
+            } else if (ret == 0 || ret > mSize - start) {
+                break;
+            } else {
+                mFrames.add(Arrays.copyOfRange(mBuffer, start, start + ret));
+                start += ret - mDecoder.getSharedLength();
+            }
+        }
+        System.arraycopy(mBuffer, start, mBuffer, 0, mSize - start);
+        mSize -= start;
+        return this;
+    }
+
+    /**
+     * Add received data in chunks of given size.
+     *
+     * @param data      Received data.
+     * @param chunkSize Chunk size.
+     * @return This collector.
+     */
+    GXFrameCollector add(final byte[] data, final int chunkSize) {
+        for (int pos = 0; pos < data.length; pos += chunkSize) {
+            add(Arrays.copyOfRange(data, pos, Math.min(data.length, pos + chunkSize)));
+        }
+        return this;
+    }
+
+    /**
+     * @return Decoded frames.
+     */
+    List<byte[]> getFrames() {
+        return mFrames;
+    }
+
+    /**
+     * Concatenate byte arrays.
+     *
+     * @param values Byte arrays.
+     * @return Concatenated array.
+     */
+    static byte[] concat(final byte[]... values) {
+        int len = 0;
+        for (byte[] it : values) {
+            len += it.length;
+        }
+        byte[] ret = new byte[len];
+        int pos = 0;
+        for (byte[] it : values) {
+            System.arraycopy(it, 0, ret, pos, it.length);
+            pos += it.length;
+        }
+        return ret;
+    }
+
+    /**
+     * Convert hex string to byte array.
+     *
+     * @param value Hex string where bytes are separated with space.
+     * @return Byte array.
+     */
+    static byte[] hex(final String value) {
+        String[] tmp = value.trim().split(" ");
+        byte[] ret = new byte[tmp.length];
+        for (int pos = 0; pos != tmp.length; ++pos) {
+            ret[pos] = (byte) Integer.parseInt(tmp[pos], 16);
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,110 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial.decoders;
+
+import static gurux.serial.decoders.GXFrameCollector.concat;
+import static gurux.serial.decoders.GXFrameCollector.hex;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * HDLC frame decoder tests.
+ */
+public class GXHdlcFrameDecoderTest {
+    private static final byte[] SNRM = hex("7E A0 07 03 21 93 0F 01 7E");
+    private static final byte[] DISC = hex("7E A0 07 03 21 53 03 C7 7E");
+    private static final byte[] INFO = hex("7E A0 0C 03 21 10 E6 E6 00 01 02 86 CC 7E");
+
+    @Test
+    public void splitInput() {
+        for (int size = 1; size != INFO.length; ++size) {
+            List<byte[]> frames = new GXFrameCollector(new GXHdlcFrameDecoder())
+                    .add(INFO, size).getFrames();
+            assertEquals(1, frames.size());
+            assertArrayEquals(INFO, frames.get(0));
+        }
+    }
+
+    @Test
+    public void backToBackFrames() {
+        List<byte[]> frames = new GXFrameCollector(new GXHdlcFrameDecoder())
+                .add(concat(SNRM, DISC, INFO)).getFrames();
+        assertEquals(3, frames.size());
+        assertArrayEquals(SNRM, frames.get(0));
+        assertArrayEquals(DISC, frames.get(1));
+        assertArrayEquals(INFO, frames.get(2));
+    }
+
+    @Test
+    public void sharedFlag() {
+        //Closing flag of the first frame is the opening flag of the second frame.
+        byte[] data = concat(SNRM, Arrays.copyOfRange(DISC, 1, DISC.length),
+                Arrays.copyOfRange(INFO, 1, INFO.length));
+        for (int size = 1; size <= data.length; ++size) {
+            List<byte[]> frames = new GXFrameCollector(new GXHdlcFrameDecoder())
+                    .add(data, size).getFrames();
+            assertEquals(3, frames.size());
+            assertArrayEquals(SNRM, frames.get(0));
+            assertArrayEquals(DISC, frames.get(1));
+            assertArrayEquals(INFO, frames.get(2));
+        }
+    }
+
+    @Test
+    public void badFcs() {
+        byte[] bad = SNRM.clone();
+        bad[6] ^= 1;
+        List<byte[]> frames = new GXFrameCollector(new GXHdlcFrameDecoder())
+                .add(concat(bad, DISC)).getFrames();
+        assertEquals(1, frames.size());
+        assertArrayEquals(DISC, frames.get(0));
+    }
+
+    @Test
+    public void resync() {
+        //Garbage and truncated frame before the valid frame.
+        byte[] data = concat(hex("01 02 7E A0 07 03"), INFO);
+        List<byte[]> frames = new GXFrameCollector(new GXHdlcFrameDecoder())
+                .add(data, 3).getFrames();
+        assertEquals(1, frames.size());
+        assertArrayEquals(INFO, frames.get(0));
+    }
+}
@@ -0,0 +1,100 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial.decoders;
+
+import static gurux.serial.decoders.GXFrameCollector.concat;
+import static gurux.serial.decoders.GXFrameCollector.hex;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Length field frame decoder tests.
+ */
+public class GXLengthFieldFrameDecoderTest {
+    private static final byte[] FIRST = hex("01 00 03 0A 0B 0C");
+    private static final byte[] SECOND = hex("02 00 00");
+
+    @Test
+    public void splitInput() {
+        for (int size = 1; size != FIRST.length; ++size) {
+            List<byte[]> frames = new GXFrameCollector(new GXLengthFieldFrameDecoder(1, 2, true, 0, 16))
+                    .add(FIRST, size).getFrames();
+            assertEquals(1, frames.size());
+            assertArrayEquals(FIRST, frames.get(0));
+        }
+    }
+
+    @Test
+    public void backToBackFrames() {
+        List<byte[]> frames = new GXFrameCollector(new GXLengthFieldFrameDecoder(1, 2, true, 0, 16))
+                .add(concat(FIRST, SECOND, FIRST)).getFrames();
+        assertEquals(3, frames.size());
+        assertArrayEquals(FIRST, frames.get(0));
+        assertArrayEquals(SECOND, frames.get(1));
+        assertArrayEquals(FIRST, frames.get(2));
+    }
+
+    @Test
+    public void littleEndianWithAdjustment() {
+        //Length field doesn't include two bytes checksum.
+        byte[] frame = hex("02 00 0A 0B 01 02");
+        List<byte[]> frames = new GXFrameCollector(new GXLengthFieldFrameDecoder(0, 2, false, 2, 16))
+                .add(frame, 1).getFrames();
+        assertEquals(1, frames.size());
+        assertArrayEquals(frame, frames.get(0));
+    }
+
+    @Test
+    public void resync() {
+        //Too long frame is skipped byte by byte.
+        List<byte[]> frames = new GXFrameCollector(new GXLengthFieldFrameDecoder(1, 2, true, 0, 16))
+                .add(concat(hex("FF FF"), FIRST)).getFrames();
+        assertEquals(1, frames.size());
+        assertArrayEquals(FIRST, frames.get(0));
+    }
+
+    @Test
+    public void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new GXLengthFieldFrameDecoder(-1, 2, true, 0, 16));
+        assertThrows(IllegalArgumentException.class, () -> new GXLengthFieldFrameDecoder(0, 3, true, 0, 16));
+        assertThrows(IllegalArgumentException.class, () -> new GXLengthFieldFrameDecoder(0, 2, true, 0, 0));
+    }
+}
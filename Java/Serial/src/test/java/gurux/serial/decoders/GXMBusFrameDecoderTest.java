@@ -0,0 +1,93 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial.decoders;
+
+import static gurux.serial.decoders.GXFrameCollector.concat;
+import static gurux.serial.decoders.GXFrameCollector.hex;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * M-Bus frame decoder tests.
+ */
+public class GXMBusFrameDecoderTest {
+    private static final byte[] ACK = hex("E5");
+    private static final byte[] SHORT = hex("10 40 01 41 16");
+    private static final byte[] LONG = hex("68 07 07 68 08 01 72 01 02 03 04 85 16");
+
+    @Test
+    public void splitInput() {
+        for (int size = 1; size != LONG.length; ++size) {
+            List<byte[]> frames = new GXFrameCollector(new GXMBusFrameDecoder())
+                    .add(LONG, size).getFrames();
+            assertEquals(1, frames.size());
+            assertArrayEquals(LONG, frames.get(0));
+        }
+    }
+
+    @Test
+    public void backToBackFrames() {
+        List<byte[]> frames = new GXFrameCollector(new GXMBusFrameDecoder())
+                .add(concat(SHORT, ACK, LONG, ACK)).getFrames();
+        assertEquals(4, frames.size());
+        assertArrayEquals(SHORT, frames.get(0));
+        assertArrayEquals(ACK, frames.get(1));
+        assertArrayEquals(LONG, frames.get(2));
+        assertArrayEquals(ACK, frames.get(3));
+    }
+
+    @Test
+    public void badChecksum() {
+        byte[] bad = LONG.clone();
+        bad[11] ^= 1;
+        List<byte[]> frames = new GXFrameCollector(new GXMBusFrameDecoder())
+                .add(concat(bad, SHORT)).getFrames();
+        assertEquals(1, frames.size());
+        assertArrayEquals(SHORT, frames.get(0));
+    }
+
+    @Test
+    public void resync() {
+        List<byte[]> frames = new GXFrameCollector(new GXMBusFrameDecoder())
+                .add(concat(hex("00 68 03 04"), LONG), 4).getFrames();
+        assertEquals(1, frames.size());
+        assertArrayEquals(LONG, frames.get(0));
+    }
+}
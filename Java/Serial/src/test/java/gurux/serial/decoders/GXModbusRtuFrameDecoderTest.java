@@ -0,0 +1,94 @@
+//
+// --------------------------------------------------------------------------
+//  Gurux Ltd
+// 
+//
+//
+// Filename:        $HeadURL$
+//
+// Version:         $Revision$,
+//                  $Date$
+//                  $Author$
+//
+// Copyright (c) Gurux Ltd
+//
+//---------------------------------------------------------------------------
+//
+//  DESCRIPTION
+//
+// This file is a part of Gurux Device Framework.
+//
+// Gurux Device Framework is Open Source software; you can redistribute it
+// and/or modify it under the terms of the GNU General Public License 
+// as published by the Free Software Foundation; version 2 of the License.
+// Gurux Device Framework is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of 
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+// See the GNU General Public License for more details.
+//
+// More information of Gurux products: http://www.gurux.org
+//
+// This code is licensed under the GNU General Public License v2. 
+// Full text may be retrieved at http://www.gnu.org/licenses/gpl-2.0.txt
+//---------------------------------------------------------------------------
+
+
+package gurux.serial.decoders;
+
+import static gurux.serial.decoders.GXFrameCollector.concat;
+import static gurux.serial.decoders.GXFrameCollector.hex;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Modbus RTU frame decoder tests.
+ */
+public class GXModbusRtuFrameDecoderTest {
+    private static final byte[] READ = hex("01 03 02 00 0A 38 43");
+    private static final byte[] WRITE = hex("01 06 00 01 00 03 98 0B");
+    private static final byte[] EXCEPTION = hex("01 83 02 C0 F1");
+
+    @Test
+    public void splitInput() {
+        for (int size = 1; size != WRITE.length; ++size) {
+            List<byte[]> frames = new GXFrameCollector(new GXModbusRtuFrameDecoder())
+                    .add(WRITE, size).getFrames();
+            assertEquals(1, frames.size());
+            assertArrayEquals(WRITE, frames.get(0));
+        }
+    }
+
+    @Test
+    public void backToBackFrames() {
+        List<byte[]> frames = new GXFrameCollector(new GXModbusRtuFrameDecoder())
+                .add(concat(READ, EXCEPTION, WRITE)).getFrames();
+        assertEquals(3, frames.size());
+        assertArrayEquals(READ, frames.get(0));
+        assertArrayEquals(EXCEPTION, frames.get(1));
+        assertArrayEquals(WRITE, frames.get(2));
+    }
+
+    @Test
+    public void badCrc() {
+        byte[] bad = READ.clone();
+        bad[4] ^= 1;
+        assertTrue(new GXModbusRtuFrameDecoder().getFrameLength(bad, 0, bad.length) < 0);
+        List<byte[]> frames = new GXFrameCollector(new GXModbusRtuFrameDecoder())
+                .add(bad).getFrames();
+        assertEquals(0, frames.size());
+    }
+
+    @Test
+    public void resync() {
+        //Unknown function code is skipped byte by byte.
+        List<byte[]> frames = new GXFrameCollector(new GXModbusRtuFrameDecoder())
+                .add(concat(hex("FF 7F"), READ), 2).getFrames();
+        assertEquals(1, frames.size());
+        assertArrayEquals(READ, frames.get(0));
+    }
+}
@@ -54,13 +54,20 @@ public class MainActivity extends AppCompatActivity implements IGXMediaListener
         ActivityMainBinding binding = ActivityMainBinding.inflate(getLayoutInflater());
         mSerial = new GXSerial(this);
         mMediaViewModel.setMedia(mSerial);
-        readSettings(mSerial);
-        if (mSerial.getPort() == null && mSerial.getPorts().length != 0) {
-            //Select first port.
-            mSerial.setPort(mSerial.getPorts()[0]);
-        }
-        //Properties are saved after change.
-        mSerial.addListener(this);
+        //USB devices are read in the background and settings are applied when ports are available.
+        mSerial.getPortsAsync().handle((ports, ex) -> {
+            runOnUiThread(() -> {
+                //Settings are read also if enumeration fails.
+                readSettings(mSerial);
+                if (mSerial.getPort() == null && ports != null && ports.length != 0) {
+                    //Select first port.
+                    mSerial.setPort(ports[0]);
+                }
+                //Properties are saved after change.
+                mSerial.addListener(this);
+            });
+            return null;
+        });
         mSerialViewModel.setSerial(mSerial);
         setContentView(binding.getRoot());
 
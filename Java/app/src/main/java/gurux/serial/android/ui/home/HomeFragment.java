@@ -87,7 +87,7 @@ public class HomeFragment extends Fragment implements IGXMediaListener {
             serial.addListener(this);
             enableUI(serial.isOpen());
             info.setText(String.format(Locale.getDefault(), "%s %d:%d%s%d", serial.getPort(),
-                    serial.getBaudRate().getValue(),serial.getDataBits(), serial.getParity(), 1 + serial.getStopBits().ordinal()));
+                    serial.getBaudRateValue(),serial.getDataBits(), serial.getParity(), 1 + serial.getStopBits().ordinal()));
         });
         return root;
     }